@@ -0,0 +1,105 @@
+package ILP.coursework.ILP.coursework1.benchmark;
+
+import ILP.coursework.ILP.coursework1.Service.DroneServiceImpl;
+import ILP.coursework.ILP.coursework1.Service.GeometryServiceImpl;
+import ILP.coursework.ILP.coursework1.Service.PlanningContext;
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findAvailableDronesForDispatches for a batch of five dispatches against fleets of different sizes,
+ * spread over three service points with mixed capabilities and weekly schedules.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+
+    private DroneServiceImpl droneService;
+    private PlanningContext context;
+    private List<MedDispatchRec> dispatches;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ServicePoint[] servicePoints = {
+                new ServicePoint(1L, "Appleton Tower", new Position(-3.186874, 55.944494)),
+                new ServicePoint(2L, "Ocean Terminal", new Position(-3.17732, 55.98186)),
+                new ServicePoint(3L, "Pollock Halls", new Position(-3.1725, 55.9405))
+        };
+        Drone[] drones = new Drone[fleetSize];
+        List<List<DroneForServicePoint.DroneAvailability>> listings = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < fleetSize; i++) {
+            drones[i] = new Drone(String.valueOf(i + 1), "Drone " + (i + 1), new Drone.Capability(
+                    random.nextBoolean(), random.nextInt(3) == 0, 4.0 + random.nextInt(4) * 4,
+                    1500 + random.nextInt(4) * 500, 0.01 + random.nextInt(5) * 0.01, 1.0, 1.0));
+            List<DroneForServicePoint.Availability> schedule = Arrays.stream(DayOfWeek.values())
+                    .filter(day -> random.nextInt(3) != 0)
+                    .map(day -> new DroneForServicePoint.Availability(day.name(), "08:00", "18:00"))
+                    .toList();
+            listings.get(i % 3).add(new DroneForServicePoint.DroneAvailability(drones[i].id(), schedule));
+        }
+        DroneForServicePoint[] availability = {
+                new DroneForServicePoint(1L, listings.get(0)),
+                new DroneForServicePoint(2L, listings.get(1)),
+                new DroneForServicePoint(3L, listings.get(2))
+        };
+        ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.of(drones, servicePoints, availability, new RestrictedArea[0]);
+
+        droneService = new DroneServiceImpl(new FixedClient(snapshot), new GeometryServiceImpl());
+        context = PlanningContext.of(snapshot);
+        dispatches = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            dispatches.add(new MedDispatchRec((long) i + 1, "2025-12-12", String.format("%02d:%02d", 9 + i, 15 * i),
+                    new MedDispatchRec.Requirements(0.5, null, null, 50.0),
+                    new Position(-3.19 + random.nextDouble() * 0.02, 55.94 + random.nextDouble() * 0.01)));
+        }
+    }
+
+    @Benchmark
+    public List<String> findAvailableDrones() {
+        return droneService.findAvailableDronesForDispatches(dispatches, context);
+    }
+
+    private record FixedClient(ReferenceDataSnapshot snapshot) implements IlpRestClient {
+        @Override
+        public Drone[] getDrones() {
+            return snapshot.drones().toArray(Drone[]::new);
+        }
+
+        @Override
+        public ServicePoint[] getServicePoints() {
+            return snapshot.servicePoints().toArray(ServicePoint[]::new);
+        }
+
+        @Override
+        public DroneForServicePoint[] getDronesForServicePoints() {
+            return snapshot.dronesForServicePoints().toArray(DroneForServicePoint[]::new);
+        }
+
+        @Override
+        public RestrictedArea[] getRestrictedAreas() {
+            return snapshot.restrictedAreas().toArray(RestrictedArea[]::new);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ILP.coursework.ILP.coursework1.benchmark;
+
+import ILP.coursework.ILP.coursework1.dto.GeoJsonResponse;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the GeoJSON response from flight paths of 200 moves each, and writing it out as JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoJsonBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int paths;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<List<Position>> flightPaths;
+
+    @Setup
+    public void setUp() {
+        flightPaths = new ArrayList<>(paths);
+        for (int p = 0; p < paths; p++) {
+            List<Position> path = new ArrayList<>(200);
+            for (int i = 0; i < 200; i++) {
+                path.add(new Position(-3.19 + i * 0.00015, 55.94 + p * 0.0001));
+            }
+            flightPaths.add(path);
+        }
+    }
+
+    @Benchmark
+    public GeoJsonResponse build() {
+        return GeoJsonResponse.fromPaths(flightPaths);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(GeoJsonResponse.fromPaths(flightPaths));
+    }
+}
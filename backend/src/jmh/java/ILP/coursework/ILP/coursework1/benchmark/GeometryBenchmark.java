@@ -0,0 +1,67 @@
+package ILP.coursework.ILP.coursework1.benchmark;
+
+import ILP.coursework.ILP.coursework1.Service.GeometryService;
+import ILP.coursework.ILP.coursework1.Service.GeometryServiceImpl;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-region and segment-crossing checks against a regular polygon of a given number of vertices,
+ * for a point/segment inside, crossing and well outside it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryBenchmark {
+
+    private static final Position CENTRE = new Position(-3.1890, 55.9440);
+    private static final double RADIUS = 0.002;
+
+    @Param({"4", "16", "64", "256"})
+    public int vertices;
+
+    private final GeometryService geometryService = new GeometryServiceImpl();
+    private Region region;
+    private final Position inside = new Position(CENTRE.lng() + RADIUS / 3, CENTRE.lat());
+    private final Position outside = new Position(CENTRE.lng() + RADIUS * 3, CENTRE.lat() + RADIUS * 3);
+    private final Position farOutside = new Position(CENTRE.lng() - RADIUS * 3, CENTRE.lat() - RADIUS * 2);
+
+    @Setup
+    public void setUp() {
+        List<Position> points = new ArrayList<>(vertices + 1);
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            points.add(new Position(CENTRE.lng() + RADIUS * Math.cos(angle), CENTRE.lat() + RADIUS * Math.sin(angle)));
+        }
+        points.add(points.get(0));
+        region = new Region("polygon", points);
+    }
+
+    @Benchmark
+    public boolean pointInside() {
+        return geometryService.isPointInRegion(inside, region);
+    }
+
+    @Benchmark
+    public boolean pointOutside() {
+        return geometryService.isPointInRegion(outside, region);
+    }
+
+    @Benchmark
+    public boolean segmentCrossing() {
+        return geometryService.checkLineIntersectsRegion(inside, outside, region);
+    }
+
+    @Benchmark
+    public boolean segmentClear() {
+        return geometryService.checkLineIntersectsRegion(outside, farOutside, region);
+    }
+}
@@ -0,0 +1,60 @@
+package ILP.coursework.ILP.coursework1.benchmark;
+
+import ILP.coursework.ILP.coursework1.Service.AStarPathfinder;
+import ILP.coursework.ILP.coursework1.Service.GeometryServiceImpl;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One A* search between two points about 65 moves apart, with nothing, one square zone, or three
+ * staggered walls (a small maze) in between.
+ * Fewer iterations than the other benchmarks: with zones in the way a search can run to the iteration cap,
+ * which can take minutes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathfindingBenchmark {
+
+    public enum Layout { OPEN_AIR, ONE_ZONE, MAZE }
+
+    private static final Position START = new Position(-3.1900, 55.9440);
+    private static final Position END = new Position(-3.1803, 55.9440);
+
+    @Param
+    public Layout layout;
+
+    private AStarPathfinder pathfinder;
+    private List<Region> zones;
+
+    @Setup
+    public void setUp() {
+        pathfinder = new AStarPathfinder(new GeometryServiceImpl());
+        zones = switch (layout) {
+            case OPEN_AIR -> List.of();
+            case ONE_ZONE -> List.of(rectangle("zone", -3.1865, 55.9425, -3.1835, 55.9455));
+            // alternate gaps above and below so the path has to weave
+            case MAZE -> List.of(
+                    rectangle("wall-1", -3.1878, 55.9380, -3.1873, 55.9465),
+                    rectangle("wall-2", -3.1853, 55.9415, -3.1848, 55.9500),
+                    rectangle("wall-3", -3.1828, 55.9380, -3.1823, 55.9465));
+        };
+    }
+
+    @Benchmark
+    public List<Position> findPath() {
+        return pathfinder.findPath(START, END, zones);
+    }
+
+    static Region rectangle(String name, double minLng, double minLat, double maxLng, double maxLat) {
+        return new Region(name, List.of(new Position(minLng, minLat), new Position(maxLng, minLat),
+                new Position(maxLng, maxLat), new Position(minLng, maxLat), new Position(minLng, minLat)));
+    }
+}
@@ -0,0 +1,46 @@
+package ILP.coursework.ILP.coursework1.Controllers;
+
+import ILP.coursework.ILP.coursework1.Service.BatchGeometryService;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.BatchIsInRegionRequest;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.BatchNextPositionRequest;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.BatchTwoPositionRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Batch variants of the geometry endpoints. Results are plain arrays in the same order as the input points.
+ */
+@RequestMapping("/api/v1")
+@RestController
+public class BatchGeometryController {
+
+    private final BatchGeometryService batchGeometryService;
+
+    public BatchGeometryController(BatchGeometryService batchGeometryService) {
+        this.batchGeometryService = batchGeometryService;
+    }
+
+    @PostMapping("/distanceTo/batch")
+    public ResponseEntity<double[]> distanceTo(@Valid @RequestBody BatchTwoPositionRequest request) {
+        return ResponseEntity.ok(batchGeometryService.distances(request.positions1(), request.positions2()));
+    }
+
+    @PostMapping("/isCloseTo/batch")
+    public ResponseEntity<boolean[]> isCloseTo(@Valid @RequestBody BatchTwoPositionRequest request) {
+        return ResponseEntity.ok(batchGeometryService.closeTo(request.positions1(), request.positions2()));
+    }
+
+    @PostMapping("/nextPosition/batch")
+    public ResponseEntity<double[][]> nextPosition(@Valid @RequestBody BatchNextPositionRequest request) {
+        return ResponseEntity.ok(batchGeometryService.nextPositions(request.starts(), request.angles()));
+    }
+
+    @PostMapping("/isInRegion/batch")
+    public ResponseEntity<boolean[]> isInRegion(@Valid @RequestBody BatchIsInRegionRequest request) {
+        return ResponseEntity.ok(batchGeometryService.inRegion(request.region(), request.positions()));
+    }
+}
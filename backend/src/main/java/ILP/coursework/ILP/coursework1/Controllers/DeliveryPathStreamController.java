@@ -0,0 +1,109 @@
+package ILP.coursework.ILP.coursework1.Controllers;
+
+import ILP.coursework.ILP.coursework1.Service.PathService;
+import ILP.coursework.ILP.coursework1.Service.PlanningListener;
+import ILP.coursework.ILP.coursework1.Service.PlanningMode;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathSummary;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streaming version of /calcDeliveryPath: each DronePath is sent as soon as it is final, followed by a summary
+ * with the totals. Answers NDJSON (one JSON object per line) or Server-Sent Events depending on the Accept header.
+ * Planning runs on its own bounded pool of stream workers; when that is saturated the request answers 503.
+ */
+@RequestMapping("/api/v1")
+@RestController
+public class DeliveryPathStreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryPathStreamController.class);
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final PathService pathService;
+    private final ExecutorService streamExecutor;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+
+    public DeliveryPathStreamController(PathService pathService,
+                                        @Qualifier("deliveryPathStreamExecutor") ExecutorService streamExecutor,
+                                        ObjectMapper objectMapper,
+                                        @Value("${ilp.stream.timeout:PT5M}") Duration timeout) {
+        this.pathService = pathService;
+        this.streamExecutor = streamExecutor;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @PostMapping(value = "/calcDeliveryPathStream", produces = "application/x-ndjson")
+    public ResponseBodyEmitter streamAsNdjson(@RequestBody List<MedDispatchRec> dispatches,
+                                              @RequestParam(defaultValue = "greedy") String mode) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        stream(dispatches, PlanningMode.fromParam(mode), emitter, (name, record) ->
+                emitter.send(objectMapper.writeValueAsString(record) + "\n", NDJSON));
+        return emitter;
+    }
+
+    @PostMapping(value = "/calcDeliveryPathStream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAsEvents(@RequestBody List<MedDispatchRec> dispatches,
+                                     @RequestParam(defaultValue = "greedy") String mode) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        stream(dispatches, PlanningMode.fromParam(mode), emitter, (name, record) ->
+                emitter.send(SseEmitter.event().name(name).data(record, MediaType.APPLICATION_JSON)));
+        return emitter;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(String name, Object record) throws IOException;
+    }
+
+    private void stream(List<MedDispatchRec> dispatches, PlanningMode mode, ResponseBodyEmitter emitter, RecordWriter writer) {
+        List<MedDispatchRec> copy = List.copyOf(dispatches);
+        streamExecutor.execute(() -> {
+            PlanningListener listener = new PlanningListener() {
+                @Override
+                public void onTripPlanned(DeliveryPathResponse.DronePath dronePath) {
+                    send(writer, "dronePath", dronePath);
+                }
+            };
+            try {
+                DeliveryPathSummary summary = pathService.streamDeliveryPath(copy, mode, listener);
+                send(writer, "summary", summary);
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                // client went away, sending failed and aborted the planning
+                logger.debug("Delivery path stream closed by client: {}", e.getMessage());
+                emitter.completeWithError(e.getCause());
+            } catch (RuntimeException e) {
+                logger.error("Streamed delivery path calculation failed", e);
+                emitter.completeWithError(e);
+            }
+        });
+    }
+
+    private static void send(RecordWriter writer, String name, Object record) {
+        try {
+            writer.write(name, record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + name, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
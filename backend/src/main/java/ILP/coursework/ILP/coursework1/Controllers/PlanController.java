@@ -0,0 +1,47 @@
+package ILP.coursework.ILP.coursework1.Controllers;
+
+import ILP.coursework.ILP.coursework1.Service.PlanSessionService;
+import ILP.coursework.ILP.coursework1.Service.PlanningMode;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.PlanResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Stateful plans that can be edited one dispatch at a time instead of resubmitting the whole batch.
+ */
+@RequestMapping("/api/v1/plans")
+@RestController
+public class PlanController {
+
+    private final PlanSessionService planSessionService;
+
+    public PlanController(PlanSessionService planSessionService) {
+        this.planSessionService = planSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PlanResource> create(@RequestBody List<MedDispatchRec> dispatches,
+                                               @RequestParam(defaultValue = "greedy") String mode) {
+        PlanResource plan = planSessionService.create(dispatches, PlanningMode.fromParam(mode));
+        return ResponseEntity.created(URI.create("/api/v1/plans/" + plan.planId())).body(plan);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PlanResource> get(@PathVariable String id) {
+        return ResponseEntity.of(planSessionService.get(id));
+    }
+
+    @PostMapping("/{id}/dispatches")
+    public ResponseEntity<PlanResource> insertDispatch(@PathVariable String id, @RequestBody MedDispatchRec dispatch) {
+        return ResponseEntity.of(planSessionService.insertDispatch(id, dispatch));
+    }
+
+    @DeleteMapping("/{id}/dispatches/{dispatchId}")
+    public ResponseEntity<PlanResource> removeDispatch(@PathVariable String id, @PathVariable long dispatchId) {
+        return ResponseEntity.of(planSessionService.removeDispatch(id, dispatchId));
+    }
+}
@@ -0,0 +1,41 @@
+package ILP.coursework.ILP.coursework1.Controllers;
+
+import ILP.coursework.ILP.coursework1.Service.PlanningJobService;
+import ILP.coursework.ILP.coursework1.Service.PlanningMode;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.PlanningJobStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Asynchronous version of /calcDeliveryPath: submit a batch, then poll the job until the plan is ready.
+ */
+@RequestMapping("/api/v1/planningJobs")
+@RestController
+public class PlanningJobController {
+
+    private final PlanningJobService planningJobService;
+
+    public PlanningJobController(PlanningJobService planningJobService) {
+        this.planningJobService = planningJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PlanningJobStatus> submit(@RequestBody List<MedDispatchRec> dispatches,
+                                                    @RequestParam(defaultValue = "greedy") String mode) {
+        PlanningJobStatus status = planningJobService.submit(dispatches, PlanningMode.fromParam(mode));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/planningJobs/" + status.jobId()))
+                .body(status);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PlanningJobStatus> getStatus(@PathVariable String id) {
+        return planningJobService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
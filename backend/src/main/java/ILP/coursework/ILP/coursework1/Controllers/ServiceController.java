@@ -3,7 +3,8 @@ package ILP.coursework.ILP.coursework1.Controllers;
 import ILP.coursework.ILP.coursework1.Service.AvailabilityService;
 import ILP.coursework.ILP.coursework1.Service.DroneService;
 import ILP.coursework.ILP.coursework1.Service.PathService;
-import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.Service.PlanCache;
+import ILP.coursework.ILP.coursework1.Service.PlanningMode;
 import ILP.coursework.ILP.coursework1.dto.Drone;
 import ILP.coursework.ILP.coursework1.dto.GeoJsonResponse;
 import jakarta.validation.Valid;
@@ -23,9 +24,11 @@ public class ServiceController {
     private final DroneService droneService;
     private final PathService pathService;
     private final AvailabilityService availabilityService;
+    private final PlanCache planCache;
 
 
-    public ServiceController(GeometryService geometryService, DroneService droneService, PathService pathService, AvailabilityService availabilityService) {
+    public ServiceController(GeometryService geometryService, DroneService droneService, PathService pathService,
+                             AvailabilityService availabilityService, PlanCache planCache) {
 
         this.geometryService = geometryService;
 
@@ -33,6 +36,7 @@ public class ServiceController {
         this.pathService = pathService;
 
         this.availabilityService = availabilityService;
+        this.planCache = planCache;
     }
 
 
@@ -101,14 +105,22 @@ public class ServiceController {
         return ResponseEntity.ok(droneIds);
     }
 
+    // profile=true always plans from scratch, a cached plan has nothing to profile
     @PostMapping("/calcDeliveryPath")
-    public ResponseEntity<DeliveryPathResponse> calcDeliveryPath(@RequestBody List<MedDispatchRec> dispatches) {
-        return ResponseEntity.ok(pathService.calculateDeliveryPath(dispatches));
+    public ResponseEntity<?> calcDeliveryPath(@RequestBody List<MedDispatchRec> dispatches,
+                                              @RequestParam(defaultValue = "greedy") String mode,
+                                              @RequestParam(defaultValue = "false") boolean profile,
+                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (profile) {
+            return ResponseEntity.ok(pathService.calculateDeliveryPathProfiled(dispatches, PlanningMode.fromParam(mode)));
+        }
+        return ResponseEntity.ok(planCache.plan(dispatches, PlanningMode.fromParam(mode), idempotencyKey));
     }
 
     @PostMapping("/calcDeliveryPathAsGeoJson")
-    public ResponseEntity<GeoJsonResponse> calcDeliveryPathAsGeoJson(@RequestBody List<MedDispatchRec> dispatches) {
-        return ResponseEntity.ok(pathService.calculateDeliveryPathAsGeoJson(dispatches));
+    public ResponseEntity<GeoJsonResponse> calcDeliveryPathAsGeoJson(@RequestBody List<MedDispatchRec> dispatches,
+                                                                     @RequestParam(defaultValue = "false") boolean profile) {
+        return ResponseEntity.ok(pathService.calculateDeliveryPathAsGeoJson(dispatches, profile));
     }
 
     // CW3 stuff - Constraint Explanation
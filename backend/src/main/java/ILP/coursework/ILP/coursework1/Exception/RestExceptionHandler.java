@@ -1,13 +1,19 @@
 package ILP.coursework.ILP.coursework1.Exception;
 
+import ILP.coursework.ILP.coursework1.Service.IdempotencyKeyReusedException;
+import ILP.coursework.ILP.coursework1.client.CircuitOpenException;
+import ILP.coursework.ILP.coursework1.client.IlpFetchException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 // using the annotation below to avoid using try-catches everywhere
 @ControllerAdvice
 public class RestExceptionHandler {
@@ -31,6 +37,41 @@ public class RestExceptionHandler {
 
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Void> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+
+        // the request is well formed, it just can't be replayed under that key
+        logger.warn("Rejected request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleRejectedExecutionException(RejectedExecutionException ex) {
+
+        // planning job queue is full, the client should retry later
+        logger.warn("Rejected request, planning workers are saturated.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+
+    }
+
+    @ExceptionHandler({CircuitOpenException.class, IlpFetchException.class})
+    public ResponseEntity<Void> handleUpstreamUnavailable(RuntimeException ex) {
+
+        // the ILP circuit is open and there is no reference data to fall back on yet, the client should retry
+        // once it lets a probe through; any other upstream failure is handled like every other error
+        CircuitOpenException open = ex instanceof CircuitOpenException circuit ? circuit
+                : ex.getCause() instanceof CircuitOpenException circuit ? circuit : null;
+        if (open == null) {
+            return handleGenericException(ex);
+        }
+        logger.warn("Rejected request, ILP service unavailable: {}", open.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, open.retryAfter().toSeconds())))
+                .build();
+
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Void> handleGenericException(Exception ex) {
 
@@ -3,8 +3,10 @@ package ILP.coursework.ILP.coursework1.Service;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import ILP.coursework.ILP.coursework1.jfr.AStarSearchEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -13,17 +15,27 @@ import java.util.*;
 public class AStarPathfinder {
 
     private final GeometryService geometryService;
+    private final PlanningMetrics metrics;
     private static final Logger logger = LoggerFactory.getLogger(AStarPathfinder.class);
     private static final double[] ANGLES = {0, 22.5, 45, 67.5, 90, 112.5, 135, 157.5, 180, 202.5, 225, 247.5, 270, 292.5, 315, 337.5};
     private static final double MOVE_DISTANCE = 0.00015;
     private static final double HEURISTIC_WEIGHT = 1.5;
 
     public AStarPathfinder(GeometryService geometryService) {
+        this(geometryService, PlanningMetrics.standalone());
+    }
+
+    @Autowired
+    public AStarPathfinder(GeometryService geometryService, PlanningMetrics metrics) {
         this.geometryService = geometryService;
+        this.metrics = metrics;
     }
 
     public List<Position> findPath(Position start, Position end, List<JsonDtos.Region> noFlyZones) {
-        logger.info("A* starting path from {} to {}", start, end);
+        logger.debug("A* starting path from {} to {}", start, end);
+        AStarSearchEvent event = new AStarSearchEvent();
+        event.begin();
+        long startedAt = System.nanoTime();
         Node startNode = new Node(start);
         Node endNode = new Node(end);
 
@@ -39,13 +51,14 @@ public class AStarPathfinder {
         openSetMap.put(startNode.position, startNode);
 
         int iterations = 0;
+        int peakOpen = 1;
         final int MAX_ITERATIONS = 100000;
 
         while (!openSetQueue.isEmpty() && iterations < MAX_ITERATIONS) {
             iterations++;
 
             if (iterations % 10000 == 0) {
-                logger.info("A* iteration {}, open set size: {}, closed set size: {}",
+                logger.debug("A* iteration {}, open set size: {}, closed set size: {}",
                         iterations, openSetQueue.size(), closedSet.size());
             }
 
@@ -53,8 +66,10 @@ public class AStarPathfinder {
             openSetMap.remove(currentNode.position);
 
             if (geometryService.checkPointsClose(currentNode.position, endNode.position)) {
-                logger.info("A* found path in {} iterations", iterations);
-                return reconstructPath(currentNode);
+                logger.debug("A* found path in {} iterations", iterations);
+                List<Position> path = reconstructPath(currentNode);
+                searchFinished(event, start, end, noFlyZones, "found", startedAt, iterations, peakOpen, path.size());
+                return path;
             }
 
             closedSet.add(currentNode.position);
@@ -82,6 +97,7 @@ public class AStarPathfinder {
                     neighborNode.fCost = neighborNode.gCost + neighborNode.hCost;
                     openSetQueue.add(neighborNode);
                     openSetMap.put(neighborPos, neighborNode);
+                    peakOpen = Math.max(peakOpen, openSetQueue.size());
                 } else if (tentativeGCost < neighborNode.gCost) {
                     neighborNode.parent = currentNode;
                     neighborNode.gCost = tentativeGCost;
@@ -94,13 +110,35 @@ public class AStarPathfinder {
 
         if (iterations >= MAX_ITERATIONS) {
             logger.warn("A* exceeded max iterations ({}) from {} to {}", MAX_ITERATIONS, start, end);
+            searchFinished(event, start, end, noFlyZones, "max_iterations", startedAt, iterations, peakOpen, 0);
         } else {
             logger.warn("A* could not find path from {} to {} (exhausted search space after {} iterations)",
                     start, end, iterations);
+            searchFinished(event, start, end, noFlyZones, "no_path", startedAt, iterations, peakOpen, 0);
         }
         return Collections.emptyList();
     }
 
+    private void searchFinished(AStarSearchEvent event, Position start, Position end, List<Region> noFlyZones, String outcome,
+                                long startedAt, int iterations, int peakOpen, int pathLength) {
+        long nanos = System.nanoTime() - startedAt;
+        metrics.recordSearch(outcome, nanos, iterations, peakOpen);
+        PlanProfiler.searchFinished(start, end, outcome, nanos, iterations, peakOpen);
+        event.end();
+        if (event.shouldCommit()) {
+            event.startLng = start.lng();
+            event.startLat = start.lat();
+            event.endLng = end.lng();
+            event.endLat = end.lat();
+            event.outcome = outcome;
+            event.expandedNodes = iterations;
+            event.peakOpenSet = peakOpen;
+            event.pathLength = pathLength;
+            event.noFlyZones = noFlyZones.size();
+            event.commit();
+        }
+    }
+
     /**
      * Checks if a move from 'from' to 'to' is invalid.
      * A move is invalid if:
@@ -0,0 +1,182 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The fleet's availability compiled once: per drone and day a 1440-bit bitmap of the minutes it is available,
+ * and per day and minute a bitset of the drones available then. Drones are numbered by their position in the
+ * fleet, so "who is free at D, M" is one bitset and "who is free for all these slots" is an AND of them.
+ * Windows are [from, until). When every window starts and ends on a whole minute (the ILP data always does)
+ * the minute bitmaps are exact; otherwise checks fall back to the second ranges.
+ */
+public final class AvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+    private static final int DAYS = 7;
+
+    private final int droneCount;
+    private final int fleetWords;
+    // [drone][day] -> minute bitmap, null when the drone has no window that day
+    private final long[][][] minutesByDrone;
+    // [day] -> fleetWords words per minute, bit d set when drone d is available for that whole minute
+    private final long[][] fleetByDay;
+    // [drone][day] -> [from, until) second ranges, sorted and with overlapping or touching windows merged
+    private final int[][][][] windowsByDrone;
+    private final boolean minuteAligned;
+
+    /**
+     * @param schedules each drone's availability entries, indexed by the drone's position in the fleet
+     */
+    AvailabilityIndex(List<List<DroneForServicePoint.Availability>> schedules) {
+        this.droneCount = schedules.size();
+        this.fleetWords = Math.max(1, (droneCount + 63) / 64);
+        this.minutesByDrone = new long[droneCount][DAYS][];
+        this.fleetByDay = new long[DAYS][MINUTES_PER_DAY * fleetWords];
+        this.windowsByDrone = new int[droneCount][DAYS][][];
+
+        boolean aligned = true;
+        for (int drone = 0; drone < droneCount; drone++) {
+            List<List<int[]>> windows = new ArrayList<>();
+            for (int day = 0; day < DAYS; day++) {
+                windows.add(new ArrayList<>());
+            }
+
+            for (DroneForServicePoint.Availability a : schedules.get(drone)) {
+                int day = DayOfWeek.valueOf(a.dayOfWeek().toUpperCase()).ordinal();
+                int from = LocalTime.parse(a.from()).toSecondOfDay();
+                int until = LocalTime.parse(a.until()).toSecondOfDay();
+                windows.get(day).add(new int[]{from, until});
+                aligned &= from % 60 == 0 && until % 60 == 0;
+
+                // only minutes the window covers completely
+                int firstMinute = (from + 59) / 60;
+                int endMinute = until / 60;
+                if (firstMinute >= endMinute) continue;
+                long[] minutes = minutesByDrone[drone][day];
+                if (minutes == null) {
+                    minutes = minutesByDrone[drone][day] = new long[WORDS_PER_DAY];
+                }
+                for (int minute = firstMinute; minute < endMinute; minute++) {
+                    minutes[minute >>> 6] |= 1L << minute;
+                    fleetByDay[day][minute * fleetWords + (drone >>> 6)] |= 1L << drone;
+                }
+            }
+
+            for (int day = 0; day < DAYS; day++) {
+                windowsByDrone[drone][day] = merged(windows.get(day));
+            }
+        }
+        this.minuteAligned = aligned;
+    }
+
+    /**
+     * Whether drone number {@code drone} is available on that day at that time.
+     */
+    public boolean isAvailable(int drone, DayOfWeek day, LocalTime time) {
+        int second = time.toSecondOfDay();
+        long[] minutes = minutesByDrone[drone][day.ordinal()];
+        int minute = second / 60;
+        if (minutes != null && (minutes[minute >>> 6] & (1L << minute)) != 0) {
+            return true;
+        }
+        if (minuteAligned) {
+            return false;
+        }
+        for (int[] window : windowsByDrone[drone][day.ordinal()]) {
+            if (second >= window[0] && second < window[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[][] merged(List<int[]> windows) {
+        List<int[]> merged = new ArrayList<>();
+        windows.stream().sorted(Comparator.comparingInt(w -> w[0])).forEach(window -> {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && window[0] <= last[1]) {
+                last[1] = Math.max(last[1], window[1]);
+            } else {
+                merged.add(window.clone());
+            }
+        });
+        return merged.toArray(int[][]::new);
+    }
+
+    /**
+     * The earliest second of the day at or after {@code notBefore} from which drone number {@code drone} stays
+     * available for {@code seconds} without a break, {@link Integer#MAX_VALUE} when there is none that day.
+     * Binary search for the first window still open at notBefore, then only windows long enough are looked at.
+     */
+    public int earliestAvailable(int drone, DayOfWeek day, int notBefore, int seconds) {
+        int[][] windows = windowsByDrone[drone][day.ordinal()];
+        int low = 0;
+        int high = windows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (windows[mid][1] <= notBefore) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < windows.length; i++) {
+            int from = Math.max(windows[i][0], notBefore);
+            if ((long) from + seconds <= windows[i][1]) {
+                return from;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * The drones available on that day at that time, as a bitset over their fleet positions.
+     */
+    public BitSet availableAt(DayOfWeek day, LocalTime time) {
+        if (!minuteAligned) {
+            BitSet available = new BitSet(droneCount);
+            for (int drone = 0; drone < droneCount; drone++) {
+                if (isAvailable(drone, day, time)) {
+                    available.set(drone);
+                }
+            }
+            return available;
+        }
+        int offset = time.toSecondOfDay() / 60 * fleetWords;
+        long[] words = new long[fleetWords];
+        System.arraycopy(fleetByDay[day.ordinal()], offset, words, 0, fleetWords);
+        return BitSet.valueOf(words);
+    }
+
+    public int droneCount() {
+        return droneCount;
+    }
+
+    /**
+     * The availability of drone number {@code drone}, -1 for a drone the index doesn't know (never available).
+     */
+    public Schedule schedule(int drone) {
+        return new Schedule(this, drone);
+    }
+
+    /**
+     * One drone's availability, checked against the compiled index.
+     */
+    public record Schedule(AvailabilityIndex index, int drone) {
+        public boolean isAvailable(DayOfWeek day, LocalTime time) {
+            return drone >= 0 && index.isAvailable(drone, day, time);
+        }
+
+        public int earliestAvailable(DayOfWeek day, int notBefore, int seconds) {
+            return drone >= 0 ? index.earliestAvailable(drone, day, notBefore, seconds) : Integer.MAX_VALUE;
+        }
+    }
+}
@@ -23,13 +23,13 @@ public class AvailabilityService {
     }
 
     public AvailabilityExplanation explainAvailability(MedDispatchRec dispatch) {
-        Drone[] allDrones = ilpRestClient.getDrones();
-        ServicePoint[] servicePoints = ilpRestClient.getServicePoints();
-        DroneForServicePoint[] availabilities = ilpRestClient.getDronesForServicePoints();
+        return explainAvailability(dispatch, PlanningContext.load(ilpRestClient));
+    }
 
+    public AvailabilityExplanation explainAvailability(MedDispatchRec dispatch, PlanningContext context) {
         List<DroneAvailabilityCheck> checks = new ArrayList<>();
 
-        for (Drone drone : allDrones) {
+        for (Drone drone : context.drones()) {
             List<String> reasons = new ArrayList<>();
             boolean available = true;
 
@@ -61,13 +61,13 @@ public class AvailabilityService {
             DayOfWeek dayOfWeek = LocalDate.parse(dispatch.date()).getDayOfWeek();
             LocalTime deliveryTime = LocalTime.parse(dispatch.time());
 
-            if (!isDroneAvailableAtTime(drone.id(), dayOfWeek, deliveryTime, availabilities)) {
+            if (!context.isAvailable(drone.id(), dayOfWeek, deliveryTime)) {
                 available = false;
                 reasons.add("❌ Not available on " + dayOfWeek + " at " + deliveryTime);
             }
 
             // Check if drone has a service point
-            Optional<ServicePoint> sp = findServicePointForDrone(drone.id(), availabilities, servicePoints);
+            Optional<ServicePoint> sp = context.servicePointFor(drone.id());
             if (sp.isEmpty()) {
                 available = false;
                 reasons.add("❌ No service point assigned to this drone");
@@ -113,48 +113,6 @@ public class AvailabilityService {
         return new AvailabilityExplanation(checks, suggestions);
     }
 
-    private boolean isDroneAvailableAtTime(
-            String droneId,
-            DayOfWeek day,
-            LocalTime time,
-            DroneForServicePoint[] availabilities) {
-
-        for (DroneForServicePoint spAvail : availabilities) {
-            for (DroneForServicePoint.DroneAvailability droneAvail : spAvail.drones()) {
-                if (droneAvail.id().equals(droneId)) {
-                    for (DroneForServicePoint.Availability schedule : droneAvail.availability()) {
-                        DayOfWeek scheduleDay = DayOfWeek.valueOf(schedule.dayOfWeek().toUpperCase());
-                        if (scheduleDay.equals(day)) {
-                            LocalTime from = LocalTime.parse(schedule.from());
-                            LocalTime until = LocalTime.parse(schedule.until());
-                            if (!time.isBefore(from) && time.isBefore(until)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private Optional<ServicePoint> findServicePointForDrone(
-            String droneId,
-            DroneForServicePoint[] availabilities,
-            ServicePoint[] servicePoints) {
-
-        for (DroneForServicePoint spAvail : availabilities) {
-            if (spAvail.drones().stream().anyMatch(d -> d.id().equals(droneId))) {
-                for (ServicePoint sp : servicePoints) {
-                    if (sp.id().equals(spAvail.servicePointId())) {
-                        return Optional.of(sp);
-                    }
-                }
-            }
-        }
-        return Optional.empty();
-    }
-
     private List<String> generateSuggestions(List<DroneAvailabilityCheck> checks, MedDispatchRec dispatch) {
         List<String> suggestions = new ArrayList<>();
 
@@ -0,0 +1,168 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+
+/**
+ * Batch versions of the geometry endpoints. Points come in as [lng, lat] pairs, are unpacked into primitive arrays
+ * once, and are evaluated in a plain loop; batches past the parallel threshold are split across the planning pool.
+ * Results agree exactly with {@link GeometryService}.
+ */
+@Service
+public class BatchGeometryService {
+
+    private static final double DISTANCE_TOLERANCE = 0.00015;
+    private static final double MOVE_DISTANCE = 0.00015;
+    private static final double COMPASS_DIRECTION_DEGREES = 22.5;
+
+    private final ExecutorService planningExecutor;
+    private final int parallelThreshold;
+    private final int maxBatchSize;
+
+    public BatchGeometryService(@Qualifier("planningExecutor") ExecutorService planningExecutor,
+                                @Value("${ilp.geometry.parallel-threshold:4096}") int parallelThreshold,
+                                @Value("${ilp.geometry.max-batch:100000}") int maxBatchSize) {
+        this.planningExecutor = planningExecutor;
+        this.parallelThreshold = parallelThreshold;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // a batch of points unpacked into coordinate arrays
+    private record Points(double[] lng, double[] lat) {
+        int size() {
+            return lng.length;
+        }
+    }
+
+    /**
+     * Distance from each point in the first list to the matching point in the second.
+     * The second list may also be a single point, which every first point is measured against.
+     */
+    public double[] distances(double[][] positions1, double[][] positions2) {
+        Points from = unpack(positions1);
+        Points to = unpack(positions2);
+        checkPaired(from, to);
+        boolean single = to.size() == 1;
+        double[] result = new double[from.size()];
+        forEachIndex(result.length, i -> {
+            int j = single ? 0 : i;
+            result[i] = PreparedRegion.distance(from.lng[i], from.lat[i], to.lng[j], to.lat[j]);
+        });
+        return result;
+    }
+
+    public boolean[] closeTo(double[][] positions1, double[][] positions2) {
+        double[] distances = distances(positions1, positions2);
+        boolean[] result = new boolean[distances.length];
+        for (int i = 0; i < distances.length; i++) {
+            result[i] = distances[i] < DISTANCE_TOLERANCE;
+        }
+        return result;
+    }
+
+    /**
+     * Next position of each start for the matching angle, or for a single angle shared by every start.
+     * @throws IllegalArgumentException if any angle is not a multiple of 22.5
+     */
+    public double[][] nextPositions(double[][] starts, double[] angles) {
+        Points from = unpack(starts);
+        if (angles == null || (angles.length != from.size() && angles.length != 1)) {
+            throw new IllegalArgumentException("angles must match starts or be a single angle");
+        }
+        double[] cos = new double[angles.length];
+        double[] sin = new double[angles.length];
+        for (int i = 0; i < angles.length; i++) {
+            double quotient = angles[i] / COMPASS_DIRECTION_DEGREES;
+            if (angles[i] < 0 || angles[i] > 360 || Math.abs(quotient - Math.round(quotient)) > 1e-9) {
+                throw new IllegalArgumentException("Invalid angle " + angles[i]);
+            }
+            double angleInRad = Math.toRadians(angles[i]);
+            cos[i] = Math.cos(angleInRad);
+            sin[i] = Math.sin(angleInRad);
+        }
+
+        boolean single = angles.length == 1;
+        double[][] result = new double[from.size()][];
+        forEachIndex(result.length, i -> {
+            int j = single ? 0 : i;
+            result[i] = new double[]{from.lng[i] + MOVE_DISTANCE * cos[j], from.lat[i] + MOVE_DISTANCE * sin[j]};
+        });
+        return result;
+    }
+
+    /**
+     * Whether each point is inside (or on the border of) the region.
+     * @throws IllegalArgumentException if the region is not a closed polygon
+     */
+    public boolean[] inRegion(Region region, double[][] positions) {
+        if (region == null) {
+            throw new IllegalArgumentException("region is required");
+        }
+        PreparedRegion prepared = PreparedRegion.of(region);
+        Points points = unpack(positions);
+        boolean[] result = new boolean[points.size()];
+        forEachIndex(result.length, i -> result[i] = prepared.contains(points.lng[i], points.lat[i]));
+        return result;
+    }
+
+    private Points unpack(double[][] positions) {
+        if (positions == null || positions.length == 0) {
+            throw new IllegalArgumentException("positions must not be empty");
+        }
+        if (positions.length > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + positions.length + " exceeds the limit of " + maxBatchSize);
+        }
+        double[] lng = new double[positions.length];
+        double[] lat = new double[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            double[] p = positions[i];
+            // same ranges as the @Min/@Max on Position
+            if (p == null || p.length != 2 || p[0] < -180 || p[0] > 180 || p[1] < -90 || p[1] > 90) {
+                throw new IllegalArgumentException("Invalid position at index " + i);
+            }
+            lng[i] = p[0];
+            lat[i] = p[1];
+        }
+        return new Points(lng, lat);
+    }
+
+    private static void checkPaired(Points first, Points second) {
+        if (second.size() != first.size() && second.size() != 1) {
+            throw new IllegalArgumentException("positions2 must match positions1 or be a single position");
+        }
+    }
+
+    /**
+     * Runs the body for every index, in chunks on the planning pool once the batch is big enough to be worth it.
+     */
+    private void forEachIndex(int n, IntConsumer body) {
+        if (n < parallelThreshold) {
+            for (int i = 0; i < n; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+
+        int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), n / (parallelThreshold / 2)));
+        int chunkSize = (n + chunks - 1) / chunks;
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        for (int start = 0; start < n; start += chunkSize) {
+            int from = start;
+            int to = Math.min(n, start + chunkSize);
+            parts.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+            }, planningExecutor));
+        }
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+    }
+}
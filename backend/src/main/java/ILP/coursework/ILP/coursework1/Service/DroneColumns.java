@@ -0,0 +1,193 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The fleet's capabilities laid out column by column (one primitive array per numeric attribute, a bitset per
+ * flag), so a compiled {@link DroneQuery} works on arrays instead of drone records. Row i is the drone at fleet
+ * position i. Each numeric column also has a sorted index, so a comparison is a binary search and a run of rows
+ * rather than a scan. Built once per snapshot with the {@link FleetIndex}.
+ */
+public final class DroneColumns {
+
+    /**
+     * The numeric capability attributes a query can compare, by their (case-insensitive) query name.
+     */
+    public enum NumericAttribute {
+        CAPACITY("capacity", Drone.Capability::capacity),
+        MAX_MOVES("maxmoves", Drone.Capability::maxMoves),
+        COST_PER_MOVE("costpermove", Drone.Capability::costPerMove),
+        COST_INITIAL("costinitial", Drone.Capability::costInitial),
+        COST_FINAL("costfinal", Drone.Capability::costFinal);
+
+        private final String queryName;
+        private final ToDoubleFunction<Drone.Capability> getter;
+
+        NumericAttribute(String queryName, ToDoubleFunction<Drone.Capability> getter) {
+            this.queryName = queryName;
+            this.getter = getter;
+        }
+
+        public static Optional<NumericAttribute> fromQueryName(String name) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            for (NumericAttribute attribute : values()) {
+                if (attribute.queryName.equals(lower)) {
+                    return Optional.of(attribute);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The comparison operators a numeric term can use.
+     */
+    public enum Comparison {
+        EQ("="), NE("!="), LT("<"), GT(">"), LE("<="), GE(">=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public static Comparison of(String symbol) {
+            for (Comparison comparison : values()) {
+                if (comparison.symbol.equals(symbol)) {
+                    return comparison;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator: " + symbol);
+        }
+    }
+
+    private final String[] ids;
+    private final double[][] numeric;
+    // per attribute: rows ordered by value, and the values in that order
+    private final int[][] sortedRows;
+    private final double[][] sortedValues;
+    private final BitSet cooling = new BitSet();
+    private final BitSet heating = new BitSet();
+
+    DroneColumns(List<Drone> fleet) {
+        this.ids = new String[fleet.size()];
+        this.numeric = new double[NumericAttribute.values().length][fleet.size()];
+        for (int row = 0; row < fleet.size(); row++) {
+            Drone drone = fleet.get(row);
+            ids[row] = drone.id();
+            for (NumericAttribute attribute : NumericAttribute.values()) {
+                numeric[attribute.ordinal()][row] = attribute.getter.applyAsDouble(drone.capability());
+            }
+            cooling.set(row, drone.capability().cooling());
+            heating.set(row, drone.capability().heating());
+        }
+
+        int attributes = NumericAttribute.values().length;
+        this.sortedRows = new int[attributes][];
+        this.sortedValues = new double[attributes][];
+        for (int a = 0; a < attributes; a++) {
+            double[] column = numeric[a];
+            Integer[] order = new Integer[column.length];
+            for (int row = 0; row < order.length; row++) {
+                order[row] = row;
+            }
+            Arrays.sort(order, (x, y) -> Double.compare(column[x], column[y]));
+            sortedRows[a] = new int[order.length];
+            sortedValues[a] = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedRows[a][i] = order[i];
+                sortedValues[a][i] = column[order[i]];
+            }
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Rows whose value compares to {@code value} as asked, found by binary search in the sorted index.
+     * Matches plain double comparison, so a NaN value only satisfies "!=".
+     */
+    BitSet compare(NumericAttribute attribute, Comparison comparison, double value) {
+        int[] rows = sortedRows[attribute.ordinal()];
+        double[] values = sortedValues[attribute.ordinal()];
+        BitSet matches = new BitSet(rows.length);
+        if (Double.isNaN(value)) {
+            if (comparison == Comparison.NE) {
+                matches.set(0, rows.length);
+            }
+            return matches;
+        }
+
+        int below = lowerBound(values, value);     // first index with values[i] >= value
+        int atOrBelow = upperBound(values, value); // first index with values[i] > value
+        switch (comparison) {
+            case LT -> setRows(matches, rows, 0, below);
+            case LE -> setRows(matches, rows, 0, atOrBelow);
+            case GT -> setRows(matches, rows, atOrBelow, rows.length);
+            case GE -> setRows(matches, rows, below, rows.length);
+            case EQ -> setRows(matches, rows, below, atOrBelow);
+            case NE -> {
+                setRows(matches, rows, 0, below);
+                setRows(matches, rows, atOrBelow, rows.length);
+            }
+        }
+        return matches;
+    }
+
+    private static void setRows(BitSet matches, int[] rows, int from, int to) {
+        for (int i = from; i < to; i++) {
+            matches.set(rows[i]);
+        }
+    }
+
+    private static int lowerBound(double[] values, double value) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, double value) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // the flag bitsets are shared, callers must copy before modifying them
+
+    BitSet cooling() {
+        return cooling;
+    }
+
+    BitSet heating() {
+        return heating;
+    }
+
+    /**
+     * The ids of the drones in the given rows, in fleet order.
+     */
+    public List<String> ids(BitSet rows) {
+        List<String> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            result.add(ids[row]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.Service.DroneColumns.Comparison;
+import ILP.coursework.ILP.coursework1.Service.DroneColumns.NumericAttribute;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Query;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A list of query terms compiled once into typed predicates: attribute names resolved, values parsed and
+ * operators checked up front, so a malformed query fails with an IllegalArgumentException instead of quietly
+ * matching nothing. Evaluating it ANDs one bitset per term, each taken from the sorted indexes or the
+ * precomputed flag bitsets of the {@link DroneColumns}.
+ */
+public final class DroneQuery {
+
+    private sealed interface Term permits NumericTerm, FlagTerm {
+        BitSet evaluate(DroneColumns columns);
+    }
+
+    private record NumericTerm(NumericAttribute attribute, Comparison comparison, double value) implements Term {
+        @Override
+        public BitSet evaluate(DroneColumns columns) {
+            return columns.compare(attribute, comparison, value);
+        }
+    }
+
+    private record FlagTerm(boolean heating, boolean expected) implements Term {
+        @Override
+        public BitSet evaluate(DroneColumns columns) {
+            BitSet matches = (BitSet) (heating ? columns.heating() : columns.cooling()).clone();
+            if (!expected) {
+                matches.flip(0, columns.size());
+            }
+            return matches;
+        }
+    }
+
+    private final List<Term> terms;
+
+    private DroneQuery(List<Term> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first term that isn't a known attribute, operator or value
+     */
+    public static DroneQuery compile(List<Query> queries) {
+        if (queries == null) {
+            throw new IllegalArgumentException("Query list is required");
+        }
+        List<Term> terms = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            terms.add(compileTerm(query));
+        }
+        return new DroneQuery(List.copyOf(terms));
+    }
+
+    private static Term compileTerm(Query query) {
+        if (query == null || query.attribute() == null || query.operator() == null || query.value() == null) {
+            throw new IllegalArgumentException("Query terms need an attribute, operator and value: " + query);
+        }
+
+        String attribute = query.attribute().toLowerCase(Locale.ROOT);
+        if (attribute.equals("cooling") || attribute.equals("heating")) {
+            // flags only compare for (in)equality
+            Comparison comparison = Comparison.of(query.operator());
+            if (comparison != Comparison.EQ && comparison != Comparison.NE) {
+                throw new IllegalArgumentException("Operator " + query.operator() + " does not apply to " + query.attribute());
+            }
+            boolean value = parseBoolean(query.value());
+            return new FlagTerm(attribute.equals("heating"), comparison == Comparison.EQ == value);
+        }
+
+        NumericAttribute numeric = NumericAttribute.fromQueryName(attribute)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown attribute: " + query.attribute()));
+        try {
+            return new NumericTerm(numeric, Comparison.of(query.operator()), Double.parseDouble(query.value()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + query.attribute() + ": " + query.value());
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("Not a boolean: " + value);
+    }
+
+    /**
+     * The rows of the drones matching every term; an empty query matches the whole fleet.
+     */
+    public BitSet evaluate(DroneColumns columns) {
+        BitSet matches = new BitSet(columns.size());
+        matches.set(0, columns.size());
+        for (Term term : terms) {
+            matches.and(term.evaluate(columns));
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        return matches;
+    }
+}
@@ -15,4 +15,10 @@ public interface DroneService {
 
     List<String> findAvailableDronesForDispatches(List<JsonDtos.MedDispatchRec> dispatches);
 
+    /**
+     * Same as above, but against reference data the caller already loaded, so repeated checks within one
+     * request don't go back to the ILP service.
+     */
+    List<String> findAvailableDronesForDispatches(List<JsonDtos.MedDispatchRec> dispatches, PlanningContext context);
+
 }
\ No newline at end of file
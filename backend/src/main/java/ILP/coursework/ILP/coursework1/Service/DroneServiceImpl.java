@@ -2,16 +2,15 @@ package ILP.coursework.ILP.coursework1.Service;
 
 import ILP.coursework.ILP.coursework1.client.IlpRestClient;
 import ILP.coursework.ILP.coursework1.dto.Drone;
-import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos;
 import ILP.coursework.ILP.coursework1.dto.ServicePoint;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,6 +18,9 @@ public class DroneServiceImpl implements DroneService {
 
     private final IlpRestClient ilpRestClient;
     private final GeometryService geometryService;
+    // compiled plans by query terms, most UI queries repeat
+    private final ExpiringStore<List<JsonDtos.Query>, DroneQuery> compiledQueries =
+            new ExpiringStore<>(Duration.ofHours(1), 500, Clock.systemUTC());
 
     public DroneServiceImpl(IlpRestClient ilpRestClient, GeometryService geometryService) {
         this.ilpRestClient = ilpRestClient;
@@ -27,128 +29,68 @@ public class DroneServiceImpl implements DroneService {
 
     @Override
     public List<String> findDronesWithCooling(boolean state) {
-        // fetching data fresh everytime
-        Drone[] allDrones = ilpRestClient.getDrones();
-
-        // process
-        return Arrays.stream(allDrones).filter(drone -> drone.capability().cooling() == state)
-                .map(Drone::id).collect(Collectors.toList());
+        return findDronesByQuery(List.of(new JsonDtos.Query("cooling", "=", String.valueOf(state))));
     }
 
     @Override
     public Optional<Drone> findDroneDetailsById(String id) {
-        //convert to json object???
-        Drone[] allDrones = ilpRestClient.getDrones();
-
-        //find specific drone
-        return Arrays.stream(allDrones).filter(drone -> drone.id().equals(id)).findFirst();
+        return FleetIndex.of(ilpRestClient.snapshot()).drone(id);
     }
 
     @Override
     public List<String> findDronesByAttribute(String attributeName, String attributeValue) {
-        Drone[] allDrones = ilpRestClient.getDrones();
-        return Arrays.stream(allDrones).filter(drone -> droneMatches(drone, attributeName, "=", attributeValue))
-                .map(Drone::id).collect(Collectors.toList());
+        return findDronesByQuery(List.of(new JsonDtos.Query(attributeName, "=", attributeValue)));
     }
 
+    /**
+     * Compiles the query (or reuses the compiled plan for the same terms) and runs it over the fleet's columns.
+     * @throws IllegalArgumentException if a term has an unknown attribute, operator or unparseable value
+     */
     @Override
     public List<String> findDronesByQuery(List<JsonDtos.Query> queries) {
-        Drone[] allDrones = ilpRestClient.getDrones();
-        return Arrays.stream(allDrones).filter(drone -> queries.stream()
-                        .allMatch(query -> droneMatches(drone, query.attribute(), query.operator(), query.value())))
-                .map(Drone::id).collect(Collectors.toList());
+        DroneQuery query = compiledQueries.get(queries).orElseGet(() -> {
+            DroneQuery compiled = DroneQuery.compile(queries);
+            compiledQueries.put(List.copyOf(queries), compiled);
+            return compiled;
+        });
+        DroneColumns columns = FleetIndex.of(ilpRestClient.snapshot()).columns();
+        return columns.ids(query.evaluate(columns));
     }
 
-    /**
-     * private helper to check if a single drone matches a single query criteriaa
-     */
-    private boolean droneMatches(Drone drone, String attribute, String operator, String value) {
-        try {
-            switch (attribute.toLowerCase()) {
-                // Boolean attributes
-                case "cooling":
-                    return drone.capability().cooling() == Boolean.parseBoolean(value);
-                case "heating":
-                    return drone.capability().heating() == Boolean.parseBoolean(value);
-
-                // Numeric attributes
-                case "capacity":
-                case "maxmoves":
-                case "costpermove":
-                case "costinitial":
-                case "costfinal":
-                    double numericValue = Double.parseDouble(value);
-                    double droneValue = getNumericDroneValue(drone, attribute);
-                    switch (operator) {
-                        case "=": return droneValue == numericValue;
-                        case "!=": return droneValue != numericValue;
-                        case "<": return droneValue < numericValue;
-                        case ">": return droneValue > numericValue;
-                        case ">=": return droneValue >= numericValue;
-                        case "<=": return droneValue <= numericValue;
-                        default: return false;
-                    }
-                default:
-                    return false;
-            }
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
 
-    /**
-     * Helper to get a numeric value from a drone by attribute name.
-     */
-    private double getNumericDroneValue(Drone drone, String attribute) {
-        switch (attribute.toLowerCase()) {
-            case "capacity": return drone.capability().capacity();
-            case "maxmoves": return drone.capability().maxMoves();
-            case "costpermove": return drone.capability().costPerMove();
-            case "costinitial": return drone.capability().costInitial();
-            case "costfinal": return drone.capability().costFinal();
-            default: return -1;
+    @Override
+    public List<String> findAvailableDronesForDispatches(List<JsonDtos.MedDispatchRec> dispatches) {
+        if (dispatches == null || dispatches.isEmpty()) {
+            return List.of();
         }
+        return findAvailableDronesForDispatches(dispatches, PlanningContext.load(ilpRestClient));
     }
 
-
     @Override
-    public List<String> findAvailableDronesForDispatches(List<JsonDtos.MedDispatchRec> dispatches) {
+    public List<String> findAvailableDronesForDispatches(List<JsonDtos.MedDispatchRec> dispatches, PlanningContext context) {
         if (dispatches == null || dispatches.isEmpty()) {
             return List.of();
         }
 
-        Drone[] allDrones = ilpRestClient.getDrones();
-        ServicePoint[] servicePoints = ilpRestClient.getServicePoints();
-        DroneForServicePoint[] availabilities = ilpRestClient.getDronesForServicePoints();
-
         // aggregate requirements
         double totalCapacity = dispatches.stream().mapToDouble(d -> d.requirements().capacity()).sum();
         boolean needsCooling = dispatches.stream().anyMatch(d -> d.requirements().cooling() != null && d.requirements().cooling());
         boolean needsHeating = dispatches.stream().anyMatch(d -> d.requirements().heating() != null && d.requirements().heating());
 
-        // grouping by date to handle multi-day req
-        Map<LocalDate, List<JsonDtos.MedDispatchRec>> dispatchesByDate = dispatches.stream()
-                .collect(Collectors.groupingBy(d -> LocalDate.parse(d.date())));
+        // filter by availability, one bitset AND across the fleet per distinct slot
+        Set<FleetIndex.Slot> slots = dispatches.stream()
+                .map(d -> new FleetIndex.Slot(LocalDate.parse(d.date()).getDayOfWeek(), LocalTime.parse(d.time())))
+                .collect(Collectors.toSet());
 
-        return Arrays.stream(allDrones)
+        return context.fleet().availableAtAll(slots).stream()
                 // filter by capacity
                 .filter(drone -> drone.capability().capacity() >= totalCapacity)
                 .filter(drone -> !needsCooling || drone.capability().cooling())
                 .filter(drone -> !needsHeating || drone.capability().heating())
 
-                // filter by availability
-                .filter(drone -> dispatches.stream().allMatch(dispatch ->
-                        isDroneAvailable(
-                                drone.id(),
-                                LocalDate.parse(dispatch.date()).getDayOfWeek(),
-                                LocalTime.parse(dispatch.time()),
-                                availabilities
-                        )
-                ))
-
                 // filtering by max cost (approxx)
                 .filter(drone -> {
-                    Optional<ServicePoint> sp = findServicePointForDrone(drone.id(), availabilities, servicePoints);
+                    Optional<ServicePoint> sp = context.servicePointFor(drone.id());
                     if (sp.isEmpty()) return false;
 
                     // Approximate tour distance using greedy nearest-neighbor (matches actual path planning)
@@ -181,40 +123,4 @@ public class DroneServiceImpl implements DroneService {
                 })
                 .map(Drone::id).collect(Collectors.toList());
     }
-
-
-    private Optional<ServicePoint> findServicePointForDrone(String droneId, DroneForServicePoint[] availabilities, ServicePoint[] servicePoints) {
-        for (DroneForServicePoint spAvail : availabilities) {
-            if (spAvail.drones().stream().anyMatch(d -> d.id().equals(droneId))) {
-                for (ServicePoint sp : servicePoints) {
-                    if (sp.id().equals(spAvail.servicePointId())) {
-                        return Optional.of(sp);
-                    }
-                }
-            }
-        }
-        return Optional.empty();
-    }
-
-    private boolean isDroneAvailable(String droneId, DayOfWeek day, LocalTime time, DroneForServicePoint[] allAvailabilities) {
-        for (DroneForServicePoint spAvail : allAvailabilities) {
-            for (DroneForServicePoint.DroneAvailability droneAvail : spAvail.drones()) {
-                if (droneAvail.id().equals(droneId)) {
-                    // This is the drone we're checking, now check its schedule.
-                    for (DroneForServicePoint.Availability schedule : droneAvail.availability()) {
-                        DayOfWeek scheduleDay = DayOfWeek.valueOf(schedule.dayOfWeek().toUpperCase());
-                        if (scheduleDay.equals(day)) {
-                            LocalTime from = LocalTime.parse(schedule.from());
-                            LocalTime until = LocalTime.parse(schedule.until());
-                            // Check if delivery time is within the [from, until) interval
-                            if (!time.isBefore(from) && time.isBefore(until)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return false;
-    }
-}
\ No newline at end of file
+}
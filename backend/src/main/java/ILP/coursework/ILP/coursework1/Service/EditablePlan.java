@@ -0,0 +1,14 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+
+/**
+ * A delivery plan that keeps its planning state so dispatches can be added or removed without replanning everything.
+ * Only the {@link PlanEditor} that created a plan can edit it.
+ */
+public interface EditablePlan {
+
+    PlanningMode mode();
+
+    DeliveryPathResponse current();
+}
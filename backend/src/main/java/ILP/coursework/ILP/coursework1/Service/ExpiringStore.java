@@ -0,0 +1,93 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Small in-memory store where entries expire after a TTL and the oldest entries are dropped past a size cap.
+ * Used for finished planning results, so memory stays bounded however many jobs are submitted.
+ */
+public class ExpiringStore<K, V> {
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>();
+
+    public ExpiringStore(Duration ttl, int maxSize, Clock clock) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.remove(key); // re-inserting moves the key to the newest position
+        entries.put(key, new Entry<>(value, clock.instant().plus(ttl)));
+        evict();
+    }
+
+    /**
+     * Stores the value unless the key already has a live entry.
+     * @return the live entry already there, empty if this value was stored
+     */
+    public synchronized Optional<V> putIfAbsent(K key, V value) {
+        Optional<V> existing = get(key);
+        if (existing.isEmpty()) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    public synchronized Optional<V> remove(K key) {
+        return Optional.ofNullable(entries.remove(key)).map(Entry::value);
+    }
+
+    /**
+     * Removes the key only while it still maps to this value.
+     */
+    public synchronized boolean remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.value() != value) {
+            return false;
+        }
+        entries.remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        evict();
+        return entries.size();
+    }
+
+    private void evict() {
+        Instant now = clock.instant();
+        // entries are in insertion order and share one TTL, so expired ones are all at the front
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            if (eldest.getValue().expiresAt().isAfter(now) && entries.size() <= maxSize) {
+                break;
+            }
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Lookups over the fleet, built once per reference-data snapshot: drones by id, the service point each drone
+ * flies from, the drones based at each service point, and each drone's availability (also compiled into an
+ * {@link AvailabilityIndex}, where drones are numbered in fleet order). It is immutable and kept with the
+ * snapshot, so every request reading the same snapshot shares one index.
+ */
+public final class FleetIndex {
+
+    private final Map<String, Drone> dronesById;
+    private final List<Drone> fleet;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<String, ServicePoint> servicePointByDrone;
+    private final Map<Long, List<Drone>> dronesByServicePoint;
+    private final Map<String, List<DroneForServicePoint.Availability>> availabilityByDrone;
+    private final AvailabilityIndex availability;
+    private final DroneColumns columns;
+
+    private FleetIndex(ReferenceDataSnapshot snapshot) {
+        Map<String, Drone> drones = new LinkedHashMap<>();
+        for (Drone drone : snapshot.drones()) {
+            drones.putIfAbsent(drone.id(), drone);
+        }
+
+        Map<Long, ServicePoint> servicePointsById = new HashMap<>();
+        for (ServicePoint sp : snapshot.servicePoints()) {
+            servicePointsById.putIfAbsent(sp.id(), sp);
+        }
+
+        Map<String, ServicePoint> bases = new HashMap<>();
+        Map<String, List<DroneForServicePoint.Availability>> schedules = new HashMap<>();
+        for (DroneForServicePoint spAvail : snapshot.dronesForServicePoints()) {
+            ServicePoint sp = servicePointsById.get(spAvail.servicePointId());
+            for (DroneForServicePoint.DroneAvailability droneAvail : spAvail.drones()) {
+                // a drone belongs to the first listed service point that exists
+                if (sp != null) {
+                    bases.putIfAbsent(droneAvail.id(), sp);
+                }
+                // availability counts from every listing, as the availability check always did
+                schedules.computeIfAbsent(droneAvail.id(), id -> new ArrayList<>()).addAll(droneAvail.availability());
+            }
+        }
+
+        Map<Long, List<Drone>> byServicePoint = new HashMap<>();
+        for (Drone drone : drones.values()) {
+            ServicePoint base = bases.get(drone.id());
+            if (base != null) {
+                byServicePoint.computeIfAbsent(base.id(), id -> new ArrayList<>()).add(drone);
+            }
+        }
+        byServicePoint.replaceAll((id, list) -> List.copyOf(list));
+
+        schedules.replaceAll((droneId, schedule) -> List.copyOf(schedule));
+
+        this.dronesById = Collections.unmodifiableMap(drones);
+        this.fleet = List.copyOf(drones.values());
+        for (int i = 0; i < fleet.size(); i++) {
+            positions.put(fleet.get(i).id(), i);
+        }
+        this.servicePointByDrone = Map.copyOf(bases);
+        this.dronesByServicePoint = Map.copyOf(byServicePoint);
+        this.availabilityByDrone = Map.copyOf(schedules);
+        this.availability = new AvailabilityIndex(fleet.stream()
+                .map(drone -> availabilityByDrone.getOrDefault(drone.id(), List.<DroneForServicePoint.Availability>of()))
+                .toList());
+        this.columns = new DroneColumns(fleet);
+    }
+
+    /**
+     * The index for a snapshot, built the first time it is asked for and then kept with the snapshot
+     * (the caching client keeps it across refreshes that changed nothing).
+     */
+    public static FleetIndex of(ReferenceDataSnapshot snapshot) {
+        return snapshot.view(FleetIndex.class, FleetIndex::new);
+    }
+
+    public Collection<Drone> drones() {
+        return fleet;
+    }
+
+    public DroneColumns columns() {
+        return columns;
+    }
+
+    public Optional<Drone> drone(String droneId) {
+        return Optional.ofNullable(dronesById.get(droneId));
+    }
+
+    public Optional<ServicePoint> servicePointFor(String droneId) {
+        return Optional.ofNullable(servicePointByDrone.get(droneId));
+    }
+
+    public List<Drone> dronesAt(long servicePointId) {
+        return dronesByServicePoint.getOrDefault(servicePointId, List.of());
+    }
+
+    public List<DroneForServicePoint.Availability> availabilityOf(String droneId) {
+        return availabilityByDrone.getOrDefault(droneId, List.of());
+    }
+
+    /**
+     * Whether the drone has an availability window on that day covering the time, [from, until).
+     */
+    public boolean isAvailable(String droneId, DayOfWeek day, LocalTime time) {
+        return scheduleOf(droneId).isAvailable(day, time);
+    }
+
+    /**
+     * The drone's compiled availability, for planners that check it many times.
+     */
+    public AvailabilityIndex.Schedule scheduleOf(String droneId) {
+        return availability.schedule(positions.getOrDefault(droneId, -1));
+    }
+
+    /**
+     * The drones available at every one of the given slots, in fleet order.
+     */
+    public List<Drone> availableAtAll(Collection<Slot> slots) {
+        BitSet available = new BitSet(fleet.size());
+        available.set(0, fleet.size());
+        for (Slot slot : slots) {
+            available.and(availability.availableAt(slot.day(), slot.time()));
+            if (available.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Drone> drones = new ArrayList<>(available.cardinality());
+        for (int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+            drones.add(fleet.get(i));
+        }
+        return drones;
+    }
+
+    /**
+     * A day and time a drone would have to be available at.
+     */
+    public record Slot(DayOfWeek day, LocalTime time) {}
+}
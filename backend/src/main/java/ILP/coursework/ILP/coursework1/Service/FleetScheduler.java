@@ -0,0 +1,192 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Assigns planned trips to drones on a per-drone timeline for one day.
+ * A drone is busy from departure until it is back at its service point plus a turnaround, and a trip is only
+ * given to a drone whose availability covers all of that, so no trip runs past the end of a window or past
+ * midnight. Trips are processed by an event queue ordered by the time they are ready to leave, and each takes the
+ * candidate that can leave first; if they are all busy it books the one that frees up first, ahead of any trip
+ * that is ready later. Every trip is an event once, O(log n) on the queue; each candidate looked at is an O(1)
+ * free-at lookup plus a binary search of its windows, cheapest first, stopping at the first that can leave at once.
+ */
+@Component
+public class FleetScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetScheduler.class);
+
+    // trips ready at the same time go in the order they were offered, before any trip split from one
+    private static final Comparator<TripEvent<?>> EVENT_ORDER = Comparator.<TripEvent<?>>comparingInt(TripEvent::time)
+            .thenComparing(TripEvent::replacement)
+            .thenComparingLong(TripEvent::sequence);
+
+    private final boolean enabled;
+    private final double secondsPerMove;
+    private final int turnaroundSeconds;
+
+    public FleetScheduler(@Value("${ilp.planning.scheduling.enabled:false}") boolean enabled,
+                          @Value("${ilp.planning.seconds-per-move:1.0}") double secondsPerMove,
+                          @Value("${ilp.planning.turnaround-seconds:300}") int turnaroundSeconds) {
+        this.enabled = enabled;
+        this.secondsPerMove = secondsPerMove;
+        this.turnaroundSeconds = turnaroundSeconds;
+    }
+
+    /**
+     * A drone that could fly a trip, and what the trip costs with it.
+     */
+    public record Candidate(String droneId, double cost) {}
+
+    /**
+     * A planned trip waiting for a drone: when it can leave, how long it is, and who could fly it (kept cheapest first).
+     */
+    public record TripRequest(LocalTime readyAt, int moves, List<Candidate> candidates) {
+        public TripRequest {
+            candidates = candidates.stream().sorted(Comparator.comparingDouble(Candidate::cost)).toList();
+        }
+    }
+
+    /**
+     * The drone chosen for a trip and when it leaves and returns.
+     */
+    public record Assignment(Candidate candidate, LocalTime departure, LocalTime returnTime) {}
+
+    /**
+     * What became of an offered trip, no assignment when no candidate was free to fly it that day.
+     */
+    public record Outcome<T>(T trip, Optional<Assignment> assignment) {}
+
+    private record TripEvent<T>(int time, boolean replacement, long sequence, T trip, TripRequest request) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * An empty day to offer trips to.
+     * @param availability the compiled availability of a candidate drone, by id
+     * @param request what the scheduler needs to know about a trip
+     * @param split the trips to try instead of one no drone is free for, empty to give up on it
+     */
+    public <T> Day<T> day(DayOfWeek day, Function<String, AvailabilityIndex.Schedule> availability,
+                          Function<T, TripRequest> request, Function<T, List<T>> split) {
+        return new Day<>(day, availability, request, split);
+    }
+
+    /**
+     * One day's event queue and the time each drone is free again. Not thread-safe, a day is planned by one thread.
+     */
+    public final class Day<T> {
+        private final DayOfWeek day;
+        private final Function<String, AvailabilityIndex.Schedule> availability;
+        private final Function<T, TripRequest> request;
+        private final Function<T, List<T>> split;
+        private final Map<String, AvailabilityIndex.Schedule> schedules = new HashMap<>();
+        private final Map<String, Integer> freeAt = new HashMap<>();
+        private final PriorityQueue<TripEvent<T>> events = new PriorityQueue<>(EVENT_ORDER);
+        private long sequence;
+        private int waits;
+
+        private Day(DayOfWeek day, Function<String, AvailabilityIndex.Schedule> availability,
+                    Function<T, TripRequest> request, Function<T, List<T>> split) {
+            this.day = day;
+            this.availability = availability;
+            this.request = request;
+            this.split = split;
+        }
+
+        public void offer(T trip) {
+            TripRequest tripRequest = request.apply(trip);
+            events.add(new TripEvent<>(tripRequest.readyAt().toSecondOfDay(), false, sequence++, trip, tripRequest));
+        }
+
+        /**
+         * Processes the queued trips no trip offered later can come before: those whose event is before
+         * {@code pending}, and those offered for that time. The outcomes are final and the same
+         * as if every trip had been offered up front.
+         * @param pending the earliest a trip that hasn't been offered yet can be ready
+         * @return the outcome of every trip decided, in the order they were decided
+         */
+        public List<Outcome<T>> pollUntil(LocalTime pending) {
+            int until = pending.toSecondOfDay();
+            List<Outcome<T>> outcomes = new ArrayList<>();
+            while (!events.isEmpty()
+                    && (events.peek().time() < until || (events.peek().time() == until && !events.peek().replacement()))) {
+                process(events.poll(), outcomes);
+            }
+            return outcomes;
+        }
+
+        /**
+         * Processes every queued trip, once no more trips will be offered.
+         * @return the outcome of every trip decided, in the order they were decided
+         */
+        public List<Outcome<T>> drain() {
+            List<Outcome<T>> outcomes = new ArrayList<>();
+            while (!events.isEmpty()) {
+                process(events.poll(), outcomes);
+            }
+            logger.debug("Scheduled trips on {} across {} drones ({} waits)", day, freeAt.size(), waits);
+            return outcomes;
+        }
+
+        private void process(TripEvent<T> event, List<Outcome<T>> outcomes) {
+            TripRequest trip = event.request();
+            int duration = (int) Math.ceil(trip.moves() * secondsPerMove);
+            int occupied = duration + turnaroundSeconds;
+
+            // best candidate leaves earliest, then is cheapest, then has been idle longest (spreads the load)
+            Candidate best = null;
+            int bestDeparture = Integer.MAX_VALUE;
+            int bestFreeAt = Integer.MAX_VALUE;
+            for (Candidate candidate : trip.candidates()) {
+                if (bestDeparture == event.time() && candidate.cost() > best.cost()) {
+                    break; // nobody leaves sooner, and the rest cost more
+                }
+                int droneFreeAt = freeAt.getOrDefault(candidate.droneId(), 0);
+                int departure = schedules.computeIfAbsent(candidate.droneId(), availability)
+                        .earliestAvailable(day, Math.max(event.time(), droneFreeAt), occupied);
+                if (departure == Integer.MAX_VALUE) continue;
+
+                boolean better = departure < bestDeparture
+                        || (departure == bestDeparture && candidate.cost() < best.cost())
+                        || (departure == bestDeparture && candidate.cost() == best.cost() && droneFreeAt < bestFreeAt);
+                if (better) {
+                    best = candidate;
+                    bestDeparture = departure;
+                    bestFreeAt = droneFreeAt;
+                }
+            }
+
+            if (best == null) {
+                List<T> instead = split.apply(event.trip());
+                if (instead.isEmpty()) {
+                    logger.warn("No drone free to fly a {} move trip ready at {} on {}: every candidate is busy or outside its availability",
+                            trip.moves(), trip.readyAt(), day);
+                    outcomes.add(new Outcome<>(event.trip(), Optional.empty()));
+                }
+                for (T replacement : instead) {
+                    TripRequest replacementRequest = request.apply(replacement);
+                    int readyAt = Math.max(replacementRequest.readyAt().toSecondOfDay(), event.time());
+                    events.add(new TripEvent<>(readyAt, true, sequence++, replacement, replacementRequest));
+                }
+                return;
+            }
+            if (bestDeparture > event.time()) {
+                waits++;
+            }
+            freeAt.put(best.droneId(), bestDeparture + occupied);
+            outcomes.add(new Outcome<>(event.trip(), Optional.of(new Assignment(best,
+                    LocalTime.ofSecondOfDay(bestDeparture), LocalTime.ofSecondOfDay(bestDeparture + duration)))));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import java.io.Serial;
+
+/**
+ * Thrown when an Idempotency-Key comes back with a different dispatch batch than the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was used for a different dispatch batch");
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String idempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -1,11 +1,43 @@
 package ILP.coursework.ILP.coursework1.Service;
 
 import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathSummary;
 import ILP.coursework.ILP.coursework1.dto.GeoJsonResponse;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.ProfiledDeliveryPathResponse;
 import java.util.List;
 
 public interface PathService {
-    DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> dispatches);
-    GeoJsonResponse calculateDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches);
+    default DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> dispatches) {
+        return calculateDeliveryPath(dispatches, PlanningMode.GREEDY);
+    }
+
+    default DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        return calculateDeliveryPath(dispatches, mode, PlanningListener.NONE);
+    }
+
+    DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> dispatches, PlanningMode mode, PlanningListener listener);
+
+    /**
+     * Plans the batch handing every trip to the listener as soon as it is final, without keeping the paths:
+     * only the totals come back.
+     */
+    DeliveryPathSummary streamDeliveryPath(List<MedDispatchRec> dispatches, PlanningMode mode, PlanningListener listener);
+
+    /**
+     * Plans the batch against reference data the caller already loaded, so whatever the caller keys on
+     * (its version, say) is what the plan was computed from.
+     */
+    DeliveryPathResponse calculateDeliveryPathFrom(List<MedDispatchRec> dispatches, PlanningMode mode, PlanningContext context);
+
+    /**
+     * Plans the batch and reports where the time went (phases, A* searches, cache hits, rejected subsets).
+     */
+    ProfiledDeliveryPathResponse calculateDeliveryPathProfiled(List<MedDispatchRec> dispatches, PlanningMode mode);
+
+    default GeoJsonResponse calculateDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches) {
+        return calculateDeliveryPathAsGeoJson(dispatches, false);
+    }
+
+    GeoJsonResponse calculateDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches, boolean profile);
 }
\ No newline at end of file
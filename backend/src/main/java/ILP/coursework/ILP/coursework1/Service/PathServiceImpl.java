@@ -4,193 +4,858 @@ import ILP.coursework.ILP.coursework1.client.IlpRestClient;
 import ILP.coursework.ILP.coursework1.dto.*;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
-import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import ILP.coursework.ILP.coursework1.jfr.TripPlannedEvent;
+import ILP.coursework.ILP.coursework1.jfr.TripRejectedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
-public class PathServiceImpl implements PathService {
+public class PathServiceImpl implements PathService, PlanEditor {
 
     private static final Logger logger = LoggerFactory.getLogger(PathServiceImpl.class);
+    // trips whose straight-line detour is smallest get real paths when inserting a dispatch
+    private static final int INSERTION_CANDIDATES = 3;
+    // segments kept across requests before the shared cache is started over
+    private static final int MAX_SHARED_SEGMENTS = 50_000;
 
     private final DroneService droneService;
     private final GeometryService geometryService;
     private final IlpRestClient ilpRestClient;
     private final AStarPathfinder pathfinder;
-
-    public PathServiceImpl(DroneService droneService, GeometryService geometryService, IlpRestClient ilpRestClient, AStarPathfinder pathfinder) {
+    private final VrpSolver vrpSolver;
+    private final FleetScheduler fleetScheduler;
+    private final ExecutorService planningExecutor;
+    private final PlanningMetrics metrics;
+    private final AtomicReference<SharedSegments> sharedSegments = new AtomicReference<>();
+
+    public PathServiceImpl(DroneService droneService, GeometryService geometryService, IlpRestClient ilpRestClient,
+                           AStarPathfinder pathfinder, VrpSolver vrpSolver, FleetScheduler fleetScheduler,
+                           @Qualifier("planningExecutor") ExecutorService planningExecutor, PlanningMetrics metrics) {
         this.droneService = droneService;
         this.geometryService = geometryService;
         this.ilpRestClient = ilpRestClient;
         this.pathfinder = pathfinder;
+        this.vrpSolver = vrpSolver;
+        this.fleetScheduler = fleetScheduler;
+        this.planningExecutor = planningExecutor;
+        this.metrics = metrics;
     }
 
-    // A helper record for the path cache.
-    private record PathSegment(Position start, Position end) {}
-
-    private record Trip(String droneId, ServicePoint startPoint, Object deliveryData, double totalCost, int totalMoves) {
+    private record Trip(String droneId, ServicePoint startPoint, DeliveryPathResponse.DronePath dronePath, double totalCost, int totalMoves) {
         public DeliveryPathResponse.DronePath toDronePath() {
-            if (deliveryData instanceof DeliveryPathResponse.Delivery single) {
-                return new DeliveryPathResponse.DronePath(droneId, List.of(single));
-            } else if (deliveryData instanceof DeliveryPathResponse.DronePath multi) {
-                return multi;
+            return dronePath;
+        }
+
+        Trip scheduled(FleetScheduler.Assignment assignment) {
+            return new Trip(droneId, startPoint, dronePath.scheduled(assignment.departure(), assignment.returnTime()),
+                    totalCost, totalMoves);
+        }
+    }
+
+    // One day on the fleet timeline: the trips that got a drone, and the dispatches of trips no drone was free for
+    private record DaySchedule(List<Trip> trips, List<Long> unscheduled) {}
+
+    // The same trip priced for every drone that can fly it, cheapest first
+    private record TripOptions(List<MedDispatchRec> dispatches, List<Trip> byCost) {
+        Trip cheapest() {
+            return byCost.get(0);
+        }
+    }
+
+    // The flight path from a service point through ordered deliveries, before any drone is priced against it
+    private record FlightPlan(ServicePoint startPoint, List<MedDispatchRec> orderedDispatches,
+                              List<DeliveryPathResponse.Delivery> deliveries, int totalMoves) {}
+
+    // A* results only depend on the no-fly zones, so they are shared across requests until the zones change
+    private record SharedSegments(long zonesVersion, SegmentCache cache) {}
+
+    private SegmentCache segmentsFor(PlanningContext context) {
+        return sharedSegments.updateAndGet(shared -> shared != null
+                && shared.zonesVersion() == context.zonesVersion()
+                && shared.cache().size() < MAX_SHARED_SEGMENTS
+                ? shared
+                : new SharedSegments(context.zonesVersion(), new SegmentCache(pathfinder, context.noFlyZones(), metrics))).cache();
+    }
+
+    /**
+     * Per-request state shared by every trip of one calculation (and by the threads evaluating candidates):
+     * the reference data the request was started with, the A* segments found so far for its no-fly zones, and
+     * the time spent in each planning phase. The profiler is null unless the request asked for a profile.
+     */
+    private final class PlanningRun {
+        private final PlanningContext context;
+        private final SegmentCache segments;
+        private final PlanProfiler profiler;
+        private final AtomicLongArray phaseNanos = new AtomicLongArray(PlanningMetrics.Phase.values().length);
+
+        PlanningRun(PlanningContext context, long loadNanos, PlanProfiler profiler) {
+            this.context = context;
+            this.segments = segmentsFor(context);
+            this.profiler = profiler;
+            phaseNanos.set(PlanningMetrics.Phase.REFERENCE_DATA.ordinal(), loadNanos);
+        }
+
+        <T> T timed(PlanningMetrics.Phase phase, Supplier<T> work) {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+            }
+        }
+
+        long phaseNanos(PlanningMetrics.Phase phase) {
+            return phaseNanos.get(phase.ordinal());
+        }
+
+        Optional<Drone> drone(String droneId) {
+            return context.drone(droneId);
+        }
+
+        Optional<ServicePoint> base(String droneId) {
+            return context.servicePointFor(droneId);
+        }
+
+        List<String> availableDrones(List<MedDispatchRec> dispatches) {
+            return timed(PlanningMetrics.Phase.DRONE_FILTERING,
+                    () -> droneService.findAvailableDronesForDispatches(dispatches, context));
+        }
+
+        List<Position> path(Position start, Position end) {
+            return timed(PlanningMetrics.Phase.PATHFINDING, () -> profiler == null
+                    ? segments.path(start, end)
+                    : profiler.lookup(() -> segments.path(start, end)));
+        }
+
+        void subsetRejected() {
+            if (profiler != null) {
+                profiler.subsetRejected();
             }
-            throw new IllegalStateException("Invalid delivery data type");
+        }
+
+        PathServiceImpl owner() {
+            return PathServiceImpl.this;
         }
     }
 
     @Override
-    public DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> allDispatches) {
-        logger.info("Starting path calculation for {} dispatches.", allDispatches.size());
-        List<Region> noFlyZones = Arrays.stream(ilpRestClient.getRestrictedAreas())
-                .map(ra -> new Region(ra.name(), ra.vertices())).collect(Collectors.toList());
-        Map<PathSegment, List<Position>> pathCache = new HashMap<>();
+    public DeliveryPathResponse calculateDeliveryPath(List<MedDispatchRec> allDispatches, PlanningMode mode,
+                                                      PlanningListener listener) {
+        return calculate(allDispatches, mode, listener, null, null);
+    }
+
+    @Override
+    public DeliveryPathResponse calculateDeliveryPathFrom(List<MedDispatchRec> dispatches, PlanningMode mode, PlanningContext context) {
+        return calculate(dispatches, mode, PlanningListener.NONE, null, context);
+    }
+
+    @Override
+    public ProfiledDeliveryPathResponse calculateDeliveryPathProfiled(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        PlanProfiler profiler = new PlanProfiler();
+        DeliveryPathResponse response = calculate(dispatches, mode, PlanningListener.NONE, profiler, null);
+        return ProfiledDeliveryPathResponse.of(response, profiler.profile());
+    }
+
+    @Override
+    public DeliveryPathSummary streamDeliveryPath(List<MedDispatchRec> dispatches, PlanningMode mode, PlanningListener listener) {
+        return plan(dispatches, mode, listener, dronePath -> {}, null, null);
+    }
+
+    /**
+     * @param context the reference data to plan with, null to load it for this request
+     */
+    private DeliveryPathResponse calculate(List<MedDispatchRec> allDispatches, PlanningMode mode,
+                                           PlanningListener listener, PlanProfiler profiler, PlanningContext context) {
+        List<DeliveryPathResponse.DronePath> dronePaths = new ArrayList<>();
+        DeliveryPathSummary summary = plan(allDispatches, mode, listener, dronePaths::add, profiler, context);
+        return new DeliveryPathResponse(summary.totalCost(), summary.totalMoves(), dronePaths, summary.unscheduledDispatches());
+    }
+
+    /**
+     * Plans the batch day by day, scheduling every trip as soon as it is planned and handing it to the listener
+     * and {@code keep} right away. Only the running totals are held on to.
+     */
+    private DeliveryPathSummary plan(List<MedDispatchRec> allDispatches, PlanningMode mode, PlanningListener listener,
+                                     Consumer<DeliveryPathResponse.DronePath> keep, PlanProfiler profiler,
+                                     PlanningContext context) {
+        logger.info("Starting {} path calculation for {} dispatches.", mode, allDispatches.size());
+        long start = System.nanoTime();
+        Instant startedAt = Instant.now();
+        PlanningRun run = context != null ? new PlanningRun(context, 0, profiler) : newPlanningRun(profiler);
 
         Map<LocalDate, List<MedDispatchRec>> dispatchesByDate = allDispatches.stream()
                 .collect(Collectors.groupingBy(d -> LocalDate.parse(d.date())));
 
-        List<DeliveryPathResponse.DronePath> allDronePaths = new ArrayList<>();
-        double totalCost = 0;
-        int totalMoves = 0;
+        List<Long> unscheduled = new ArrayList<>();
+        DoubleAdder totalCost = new DoubleAdder();
+        AtomicInteger totalMoves = new AtomicInteger();
+        AtomicInteger tripCount = new AtomicInteger();
+        AtomicInteger dispatchesPlanned = new AtomicInteger();
+        IntConsumer progress = handled -> listener.onProgress(dispatchesPlanned.addAndGet(handled), allDispatches.size());
 
         for (Map.Entry<LocalDate, List<MedDispatchRec>> entry : dispatchesByDate.entrySet()) {
-            logger.info("Processing {} dispatches for date: {}", entry.getValue().size(), entry.getKey());
-            List<MedDispatchRec> remainingDispatches = new ArrayList<>(entry.getValue());
-
-            while (!remainingDispatches.isEmpty()) {
-                boolean deliveryHandled = false;
-
-                // Try multi-delivery with progressively fewer dispatches
-                for (int numDispatches = remainingDispatches.size(); numDispatches >= 2; numDispatches--) {
-                    List<MedDispatchRec> subset = remainingDispatches.subList(0, numDispatches);
-                    List<String> availableDrones = droneService.findAvailableDronesForDispatches(subset);
-
-                    if (!availableDrones.isEmpty()) {
-                        String droneId = availableDrones.get(0);
-                        Optional<Trip> tripOpt = planMultiDeliveryTrip(droneId, subset, noFlyZones, pathCache);
-
-                        if (tripOpt.isPresent()) {
-                            Trip trip = tripOpt.get();
-                            allDronePaths.add(trip.toDronePath());
-                            totalCost += trip.totalCost;
-                            totalMoves += trip.totalMoves;
-
-                            // Remove only the deliveries that were actually completed
-                            DeliveryPathResponse.DronePath dronePath = trip.toDronePath();
-                            Set<Long> completedIds = dronePath.deliveries().stream()
-                                    .map(DeliveryPathResponse.Delivery::deliveryId)
-                                    .collect(Collectors.toSet());
-                            remainingDispatches.removeIf(d -> completedIds.contains(d.id()));
-
-                            deliveryHandled = true;
-                            break; //  Move to next iteration of while loop if successful
-                        }
-                    }
+            logger.debug("Processing {} dispatches for date: {}", entry.getValue().size(), entry.getKey());
+            DayScheduler scheduler = new DayScheduler(entry.getKey(), run, entry.getValue());
+            Consumer<Supplier<List<Trip>>> emit = scheduling -> {
+                List<Trip> trips = run.timed(PlanningMetrics.Phase.SCHEDULING, scheduling);
+                long assemblyStart = System.nanoTime();
+                for (Trip trip : trips) {
+                    DeliveryPathResponse.DronePath dronePath = trip.toDronePath();
+                    listener.onTripPlanned(dronePath);
+                    keep.accept(dronePath);
+                    totalCost.add(trip.totalCost());
+                    totalMoves.addAndGet(trip.totalMoves());
+                    tripCount.incrementAndGet();
                 }
+                run.phaseNanos.addAndGet(PlanningMetrics.Phase.ASSEMBLY.ordinal(), System.nanoTime() - assemblyStart);
+            };
+            planDay(entry.getValue(), mode, run, progress,
+                    options -> emit.accept(() -> scheduler.add(options)),
+                    dispatch -> emit.accept(() -> scheduler.skipped(dispatch)));
+            emit.accept(scheduler::finish);
+            unscheduled.addAll(scheduler.unscheduled());
+        }
 
-                // If multi-delivery didn't work, fall back to single delivery
-                if (!deliveryHandled) {
-                    MedDispatchRec dispatch = remainingDispatches.get(0);
-                    List<String> dronesForSingle = droneService.findAvailableDronesForDispatches(List.of(dispatch));
+        for (PlanningMetrics.Phase phase : PlanningMetrics.Phase.values()) {
+            metrics.recordPhase(mode, phase, run.phaseNanos(phase));
+        }
+        long totalNanos = System.nanoTime() - start;
+        metrics.recordPlanning(mode, allDispatches.size(), totalNanos);
+        if (profiler != null) {
+            profiler.complete(totalNanos, run::phaseNanos, run.context, startedAt);
+        }
+        logger.info("Path calculation finished. Total Moves: {}, Total Cost: {}, Unscheduled: {}",
+                totalMoves.get(), totalCost.sum(), unscheduled.size());
+        return new DeliveryPathSummary(totalCost.sum(), totalMoves.get(), tripCount.get(), unscheduled);
+    }
 
-                    if (dronesForSingle.isEmpty()) {
-                        logger.error("No drone available for dispatch {}. Skipping.", dispatch.id());
-                        remainingDispatches.remove(0);
-                        continue;
-                    }
+    // one snapshot read per request, everything else is looked up in the context
+    private PlanningRun newPlanningRun() {
+        return newPlanningRun(null);
+    }
 
-                    String droneId = dronesForSingle.get(0);
-                    Optional<Trip> tripOpt = planSingleDeliveryTrip(droneId, dispatch, noFlyZones, pathCache);
+    private PlanningRun newPlanningRun(PlanProfiler profiler) {
+        long start = System.nanoTime();
+        PlanningContext context = PlanningContext.load(ilpRestClient);
+        return new PlanningRun(context, System.nanoTime() - start, profiler);
+    }
+
+    private List<TripOptions> planDay(List<MedDispatchRec> dayDispatches, PlanningMode mode, PlanningRun run) {
+        List<TripOptions> dayTrips = new ArrayList<>();
+        planDay(dayDispatches, mode, run, handled -> {}, dayTrips::add, dispatch -> {});
+        return dayTrips;
+    }
+
+    /**
+     * Plans one day's dispatches into trips, before they are put on the fleet timeline.
+     * @param progress told how many dispatches were handled (planned or skipped) after every step
+     * @param planned gets every trip as soon as it is planned (VRP routes once the solver is done)
+     * @param skipped gets every dispatch no trip could be planned for
+     */
+    private void planDay(List<MedDispatchRec> dayDispatches, PlanningMode mode, PlanningRun run, IntConsumer progress,
+                         Consumer<TripOptions> planned, Consumer<MedDispatchRec> skipped) {
+        List<MedDispatchRec> remainingDispatches = new ArrayList<>(dayDispatches);
+
+        if (mode == PlanningMode.VRP) {
+            // plan the whole day with the solver, anything it can't realise goes through the greedy loop below
+            remainingDispatches = planDayWithVrp(dayDispatches, run, planned);
+            progress.accept(dayDispatches.size() - remainingDispatches.size());
+        }
+
+        while (!remainingDispatches.isEmpty()) {
+            boolean deliveryHandled = false;
+
+            // Try multi-delivery with progressively fewer dispatches
+            for (int numDispatches = remainingDispatches.size(); numDispatches >= 2; numDispatches--) {
+                List<MedDispatchRec> subset = remainingDispatches.subList(0, numDispatches);
+                List<String> availableDrones = run.availableDrones(subset);
+
+                if (!availableDrones.isEmpty()) {
+                    Optional<TripOptions> tripOpt = planCheapestTrip(availableDrones, subset, run);
 
                     if (tripOpt.isPresent()) {
-                        Trip trip = tripOpt.get();
-                        allDronePaths.add(trip.toDronePath());
-                        totalCost += trip.totalCost;
-                        totalMoves += trip.totalMoves;
-                    } else {
-                        logger.error("Could not plan trip for dispatch {}. Skipping.", dispatch.id());
+                        planned.accept(tripOpt.get());
+
+                        // Remove only the deliveries that were actually completed
+                        DeliveryPathResponse.DronePath dronePath = tripOpt.get().cheapest().toDronePath();
+                        Set<Long> completedIds = dronePath.deliveries().stream()
+                                .map(DeliveryPathResponse.Delivery::deliveryId)
+                                .collect(Collectors.toSet());
+                        remainingDispatches.removeIf(d -> completedIds.contains(d.id()));
+                        progress.accept(completedIds.size());
+
+                        deliveryHandled = true;
+                        break; //  Move to next iteration of while loop if successful
                     }
+                }
+                run.subsetRejected();
+            }
+
+            // If multi-delivery didn't work, fall back to single delivery
+            if (!deliveryHandled) {
+                MedDispatchRec dispatch = remainingDispatches.remove(0);
+                planSingleTrip(dispatch, run).ifPresentOrElse(planned, () -> skipped.accept(dispatch));
+                progress.accept(1);
+            }
+        }
+    }
 
-                    remainingDispatches.remove(0);
+    private Optional<TripOptions> planSingleTrip(MedDispatchRec dispatch, PlanningRun run) {
+        List<String> dronesForSingle = run.availableDrones(List.of(dispatch));
+
+        if (dronesForSingle.isEmpty()) {
+            logger.error("No drone available for dispatch {}. Skipping.", dispatch.id());
+            return Optional.empty();
+        }
+
+        Optional<TripOptions> tripOpt = planCheapestTrip(dronesForSingle, List.of(dispatch), run);
+        if (tripOpt.isEmpty()) {
+            logger.error("Could not plan trip for dispatch {}. Skipping.", dispatch.id());
+        }
+        return tripOpt;
+    }
+
+    // Editable plans
+
+    /**
+     * Planning state kept between edits: the run (replaced when the reference data changes, see {@link #refresh}),
+     * every day's trips with all their candidate drones, and the scheduled result.
+     */
+    private final class PlanState implements EditablePlan {
+        private final PlanningMode mode;
+        private PlanningRun run;
+        private final Map<Long, MedDispatchRec> dispatches = new HashMap<>();
+        private final Map<LocalDate, List<TripOptions>> tripsByDate = new TreeMap<>();
+        private final Map<LocalDate, DaySchedule> scheduledByDate = new TreeMap<>();
+
+        PlanState(PlanningMode mode, PlanningRun run) {
+            this.mode = mode;
+            this.run = run;
+        }
+
+        @Override
+        public PlanningMode mode() {
+            return mode;
+        }
+
+        @Override
+        public synchronized DeliveryPathResponse current() {
+            List<Trip> trips = scheduledByDate.values().stream().flatMap(day -> day.trips().stream()).toList();
+            return new DeliveryPathResponse(
+                    trips.stream().mapToDouble(Trip::totalCost).sum(),
+                    trips.stream().mapToInt(Trip::totalMoves).sum(),
+                    trips.stream().map(Trip::toDronePath).toList(),
+                    scheduledByDate.values().stream().flatMap(day -> day.unscheduled().stream()).toList());
+        }
+    }
+
+    private record Insertion(int tripIndex, TripOptions trip, double addedCost) {}
+
+    @Override
+    public EditablePlan createPlan(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        PlanState plan = new PlanState(mode, newPlanningRun());
+        for (MedDispatchRec dispatch : dispatches) {
+            if (plan.dispatches.putIfAbsent(dispatch.id(), dispatch) != null) {
+                throw new IllegalArgumentException("Duplicate dispatch id " + dispatch.id());
+            }
+        }
+
+        Map<LocalDate, List<MedDispatchRec>> dispatchesByDate = dispatches.stream()
+                .collect(Collectors.groupingBy(d -> LocalDate.parse(d.date())));
+        for (Map.Entry<LocalDate, List<MedDispatchRec>> entry : dispatchesByDate.entrySet()) {
+            List<TripOptions> dayTrips = planDay(entry.getValue(), mode, plan.run);
+            plan.tripsByDate.put(entry.getKey(), dayTrips);
+            plan.scheduledByDate.put(entry.getKey(), scheduleDay(entry.getKey(), dayTrips, plan.run));
+        }
+        return plan;
+    }
+
+    @Override
+    public PlanDiff insertDispatch(EditablePlan editablePlan, MedDispatchRec dispatch) {
+        PlanState plan = stateOf(editablePlan);
+        synchronized (plan) {
+            if (plan.dispatches.containsKey(dispatch.id())) {
+                throw new IllegalArgumentException("Dispatch " + dispatch.id() + " is already in the plan");
+            }
+            LocalDate date = LocalDate.parse(dispatch.date());
+            refresh(plan);
+
+            // only recorded once it is in a trip, so a dispatch nothing can fly doesn't linger in the plan
+            Optional<Insertion> insertion = cheapestInsertion(dispatch, plan.tripsByDate.getOrDefault(date, List.of()), plan.run);
+            if (insertion.isEmpty()) {
+                logger.warn("No trip can take dispatch {}, not adding it to the plan", dispatch.id());
+                List<Long> unplanned = new ArrayList<>(unplanned(plan, date));
+                unplanned.add(dispatch.id());
+                return new PlanDiff(List.of(), List.of(), unplanned.stream().sorted().toList());
+            }
+            plan.dispatches.put(dispatch.id(), dispatch);
+            List<TripOptions> dayTrips = plan.tripsByDate.computeIfAbsent(date, d -> new ArrayList<>());
+            if (insertion.get().tripIndex() < 0) {
+                dayTrips.add(insertion.get().trip());
+            } else {
+                dayTrips.set(insertion.get().tripIndex(), insertion.get().trip());
+            }
+            return reschedule(plan, date);
+        }
+    }
+
+    @Override
+    public PlanDiff removeDispatch(EditablePlan editablePlan, long dispatchId) {
+        PlanState plan = stateOf(editablePlan);
+        synchronized (plan) {
+            MedDispatchRec removed = plan.dispatches.remove(dispatchId);
+            if (removed == null) {
+                throw new IllegalArgumentException("Dispatch " + dispatchId + " is not in the plan");
+            }
+            LocalDate date = LocalDate.parse(removed.date());
+            refresh(plan);
+            List<TripOptions> dayTrips = plan.tripsByDate.getOrDefault(date, new ArrayList<>());
+
+            for (int i = 0; i < dayTrips.size(); i++) {
+                TripOptions trip = dayTrips.get(i);
+                if (trip.dispatches().stream().noneMatch(d -> d.id().equals(dispatchId))) continue;
+
+                dayTrips.remove(i);
+                List<MedDispatchRec> remaining = trip.dispatches().stream()
+                        .filter(d -> !d.id().equals(dispatchId)).toList();
+                if (!remaining.isEmpty()) {
+                    dayTrips.addAll(i, repairTrip(trip, remaining, plan.run));
                 }
+                break;
             }
+            return reschedule(plan, date);
         }
+    }
 
-        logger.info("Path calculation finished. Total Moves: {}, Total Cost: {}", totalMoves, totalCost);
-        return new DeliveryPathResponse(totalCost, totalMoves, allDronePaths);
+    /**
+     * Moves a plan onto the current reference data before an edit, if the snapshot changed since it was planned,
+     * so inserts and repairs see today's drones and zones. Trips already planned keep their paths until edited;
+     * the edited day is rescheduled against the new availability.
+     */
+    private void refresh(PlanState plan) {
+        long start = System.nanoTime();
+        PlanningContext latest = PlanningContext.load(ilpRestClient);
+        if (latest.version() != plan.run.context.version()) {
+            logger.debug("Reference data changed from version {} to {}, editing the plan against the new snapshot",
+                    plan.run.context.version(), latest.version());
+            plan.run = new PlanningRun(latest, System.nanoTime() - start, null);
+        }
+    }
+
+    private PlanState stateOf(EditablePlan plan) {
+        if (plan instanceof PlanState state && state.run.owner() == this) {
+            return state;
+        }
+        throw new IllegalArgumentException("Plan was not created by this planner");
     }
 
     /**
-     * Plans a simple, single-delivery trip: Service Point -> Delivery -> Service Point.
+     * Cheapest way to fit a dispatch into the day: inserted at the best position of an existing trip, or as a
+     * trip of its own. Only the few trips with the smallest straight-line detour are pathed and priced.
+     * @return the insertion, with trip index -1 for a new trip
      */
-    private Optional<Trip> planSingleDeliveryTrip(String droneId, MedDispatchRec dispatch, List<Region> noFlyZones, Map<PathSegment, List<Position>> pathCache) {
-        Drone drone = droneService.findDroneDetailsById(droneId).orElse(null);
-        ServicePoint startPoint = findServicePointForDrone(droneId).orElse(null);
-        if (drone == null || startPoint == null) return Optional.empty();
+    private Optional<Insertion> cheapestInsertion(MedDispatchRec dispatch, List<TripOptions> dayTrips, PlanningRun run) {
+        record Detour(int tripIndex, int position, double distance) {}
+        List<Detour> detours = new ArrayList<>();
+        for (int i = 0; i < dayTrips.size(); i++) {
+            List<MedDispatchRec> stops = dayTrips.get(i).dispatches();
+            Position base = dayTrips.get(i).cheapest().startPoint().location();
+            Detour best = null;
+            for (int pos = 0; pos <= stops.size(); pos++) {
+                Position prev = pos == 0 ? base : stops.get(pos - 1).delivery();
+                Position next = pos == stops.size() ? base : stops.get(pos).delivery();
+                double detour = geometryService.calculateDistance(prev, dispatch.delivery())
+                        + geometryService.calculateDistance(dispatch.delivery(), next)
+                        - geometryService.calculateDistance(prev, next);
+                if (best == null || detour < best.distance()) {
+                    best = new Detour(i, pos, detour);
+                }
+            }
+            detours.add(best);
+        }
+        detours.sort(Comparator.comparingDouble(Detour::distance));
+
+        Optional<Insertion> cheapest = planSingleTrip(dispatch, run)
+                .map(trip -> new Insertion(-1, trip, trip.cheapest().totalCost()));
+
+        for (Detour detour : detours.subList(0, Math.min(INSERTION_CANDIDATES, detours.size()))) {
+            TripOptions existing = dayTrips.get(detour.tripIndex());
+            List<MedDispatchRec> stops = new ArrayList<>(existing.dispatches());
+            stops.add(detour.position(), dispatch);
+
+            // same service point means the same path, so only drones based there are worth pricing
+            ServicePoint base = existing.cheapest().startPoint();
+            List<Drone> drones = run.availableDrones(stops).stream()
+                    .filter(id -> run.base(id).filter(base::equals).isPresent())
+                    .flatMap(id -> run.drone(id).stream())
+                    .toList();
+            if (drones.isEmpty()) continue;
+
+            Optional<TripOptions> extended = planTripFromBase(base, drones, stops, run);
+            if (extended.isEmpty()) continue;
+
+            double addedCost = extended.get().cheapest().totalCost() - existing.cheapest().totalCost();
+            if (cheapest.isEmpty() || addedCost < cheapest.get().addedCost()) {
+                cheapest = Optional.of(new Insertion(detour.tripIndex(), extended.get(), addedCost));
+            }
+        }
+        return cheapest;
+    }
 
-        logger.debug("Planning single delivery trip for Drone ID '{}' to dispatch {}", droneId, dispatch.id());
+    /**
+     * Replans a trip that lost a stop: same base and candidate drones first, a fresh greedy plan of the
+     * remaining stops if that no longer works (e.g. the pro-rata cost now breaks a maxCost).
+     */
+    private List<TripOptions> repairTrip(TripOptions trip, List<MedDispatchRec> remaining, PlanningRun run) {
+        List<Drone> candidates = trip.byCost().stream()
+                .flatMap(t -> run.drone(t.droneId()).stream())
+                .toList();
+        Optional<TripOptions> repaired = planTripFromBase(trip.cheapest().startPoint(), candidates, remaining, run);
+        if (repaired.isPresent()) {
+            return List.of(repaired.get());
+        }
+        logger.debug("Trip {} can't be repaired in place, replanning its {} remaining dispatches",
+                trip.dispatches().stream().map(MedDispatchRec::id).toList(), remaining.size());
+        return planDay(remaining, PlanningMode.GREEDY, run);
+    }
 
-        List<Position> pathThere = getOrCalculatePath(startPoint.location(), dispatch.delivery(), noFlyZones, pathCache);
-        if (pathThere.isEmpty()) {
-            logger.error("A* could not find path to delivery {}.", dispatch.id());
-            return Optional.empty();
+    /**
+     * Reschedules one day after an edit and reports what changed.
+     */
+    private PlanDiff reschedule(PlanState plan, LocalDate date) {
+        List<Trip> before = Optional.ofNullable(plan.scheduledByDate.get(date)).map(DaySchedule::trips).orElse(List.of());
+        List<TripOptions> dayTrips = plan.tripsByDate.getOrDefault(date, List.of());
+        DaySchedule after = scheduleDay(date, dayTrips, plan.run);
+        if (dayTrips.isEmpty()) {
+            plan.tripsByDate.remove(date);
+            plan.scheduledByDate.remove(date);
+        } else {
+            plan.scheduledByDate.put(date, after);
         }
 
-        Position actualDeliveryPosition = pathThere.get(pathThere.size() - 1);
-        List<Position> pathBack = getOrCalculatePath(actualDeliveryPosition, startPoint.location(), noFlyZones, pathCache);
-        if (pathBack.isEmpty()) {
-            logger.error("A* could not find return path from delivery {}.", dispatch.id());
-            return Optional.empty();
+        List<DeliveryPathResponse.DronePath> beforePaths = before.stream().map(Trip::toDronePath).toList();
+        List<DeliveryPathResponse.DronePath> afterPaths = after.trips().stream().map(Trip::toDronePath).toList();
+        return new PlanDiff(
+                afterPaths.stream().filter(p -> !beforePaths.contains(p)).toList(),
+                beforePaths.stream().filter(p -> !afterPaths.contains(p)).toList(),
+                unplanned(plan, date));
+    }
+
+    /**
+     * The plan's dispatches for a day that are in none of its scheduled trips.
+     */
+    private List<Long> unplanned(PlanState plan, LocalDate date) {
+        Set<Long> delivered = Optional.ofNullable(plan.scheduledByDate.get(date)).map(DaySchedule::trips).orElse(List.of())
+                .stream()
+                .flatMap(trip -> trip.toDronePath().deliveries().stream())
+                .map(DeliveryPathResponse.Delivery::deliveryId)
+                .collect(Collectors.toSet());
+        return plan.dispatches.values().stream()
+                .filter(d -> LocalDate.parse(d.date()).equals(date) && !delivered.contains(d.id()))
+                .map(MedDispatchRec::id)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Gives every trip of the day a drone and a departure on the fleet timeline.
+     */
+    private DaySchedule scheduleDay(LocalDate date, List<TripOptions> dayTrips, PlanningRun run) {
+        DayScheduler scheduler = new DayScheduler(date, run,
+                dayTrips.stream().flatMap(options -> options.dispatches().stream()).toList());
+        List<Trip> trips = new ArrayList<>();
+        for (TripOptions options : dayTrips) {
+            trips.addAll(scheduler.add(options));
         }
+        trips.addAll(scheduler.finish());
+        return new DaySchedule(trips, scheduler.unscheduled());
+    }
 
-        // build path
-        List<Position> fullFlightPath = new ArrayList<>(pathThere);
-        fullFlightPath.add(actualDeliveryPosition); // Hover
-        fullFlightPath.addAll(pathBack.stream().skip(1).toList());
+    /**
+     * Puts one day's trips on the fleet timeline as they are planned, so drones are reused only once they are back
+     * at their service point. A multi-stop trip no drone is free for goes back to planning as one trip per dispatch
+     * (shorter trips fit more drones and windows); whatever still has no drone is not flown and reported as
+     * unscheduled. A trip is final once the event queue gets to it, which is as soon as no dispatch still waiting
+     * to be planned is due before it. With scheduling disabled every trip keeps its cheapest drone, has no times,
+     * and is final as soon as it is added.
+     */
+    private final class DayScheduler {
+        private final LocalDate date;
+        private final PlanningRun run;
+        private final FleetScheduler.Day<TripOptions> day;
+        // second of day -> how many dispatches due then are not in an offered trip yet
+        private final TreeMap<Integer, Integer> pending = new TreeMap<>();
+        private final List<Long> unscheduled = new ArrayList<>();
+
+        /**
+         * @param dispatches every dispatch of the day that may still be offered in a trip
+         */
+        DayScheduler(LocalDate date, PlanningRun run, List<MedDispatchRec> dispatches) {
+            this.date = date;
+            this.run = run;
+            this.day = fleetScheduler.isEnabled()
+                    ? fleetScheduler.day(date.getDayOfWeek(), run.context::scheduleOf, DayScheduler::request, this::split)
+                    : null;
+            if (day != null) {
+                dispatches.forEach(d -> pending.merge(LocalTime.parse(d.time()).toSecondOfDay(), 1, Integer::sum));
+            }
+        }
 
-        int totalTripMoves = fullFlightPath.size() - 1;
+        /**
+         * @return the trips that are final now, with their drone and times
+         */
+        List<Trip> add(TripOptions options) {
+            if (day == null) {
+                return List.of(options.cheapest());
+            }
+            options.dispatches().forEach(this::planned);
+            day.offer(options);
+            return poll();
+        }
 
-        if (totalTripMoves > drone.capability().maxMoves()) {
-            logger.warn("Trip for dispatch {} exceeds maxMoves for drone {}. ({} > {})", dispatch.id(), droneId, totalTripMoves, drone.capability().maxMoves());
-            return Optional.empty();
+        /**
+         * A dispatch planning gave up on, it won't be in any trip.
+         * @return the trips that are final now
+         */
+        List<Trip> skipped(MedDispatchRec dispatch) {
+            if (day == null) {
+                return List.of();
+            }
+            planned(dispatch);
+            return poll();
         }
 
-        DeliveryPathResponse.Delivery deliverySegment = new DeliveryPathResponse.Delivery(dispatch.id(), fullFlightPath);
-        double totalTripCost = drone.capability().costInitial() + drone.capability().costFinal() + (totalTripMoves * drone.capability().costPerMove());
+        /**
+         * @return the trips that were still waiting, once the whole day is planned
+         */
+        List<Trip> finish() {
+            return day == null ? List.of() : settle(day.drain());
+        }
 
+        private void planned(MedDispatchRec dispatch) {
+            pending.computeIfPresent(LocalTime.parse(dispatch.time()).toSecondOfDay(), (time, count) -> count > 1 ? count - 1 : null);
+        }
 
-        if (dispatch.requirements().maxCost() != null && totalTripCost > dispatch.requirements().maxCost()) {
-            logger.warn("Trip for dispatch {} exceeds maxCost: {} > {}",
-                    dispatch.id(), totalTripCost, dispatch.requirements().maxCost());
-            return Optional.empty();
+        private List<Trip> poll() {
+            return settle(pending.isEmpty() ? day.drain() : day.pollUntil(LocalTime.ofSecondOfDay(pending.firstKey())));
         }
 
+        List<Long> unscheduled() {
+            return unscheduled;
+        }
 
-        Trip trip = new Trip(droneId, startPoint, deliverySegment, totalTripCost, totalTripMoves);
-        return Optional.of(trip);
+        private List<Trip> settle(List<FleetScheduler.Outcome<TripOptions>> outcomes) {
+            List<Trip> trips = new ArrayList<>();
+            for (FleetScheduler.Outcome<TripOptions> outcome : outcomes) {
+                TripOptions options = outcome.trip();
+                if (outcome.assignment().isEmpty()) {
+                    reject(options);
+                    continue;
+                }
+                FleetScheduler.Assignment assignment = outcome.assignment().get();
+                options.byCost().stream()
+                        .filter(t -> t.droneId().equals(assignment.candidate().droneId()))
+                        .findFirst()
+                        .map(t -> t.scheduled(assignment))
+                        .ifPresent(trips::add);
+            }
+            return trips;
+        }
+
+        private static FleetScheduler.TripRequest request(TripOptions options) {
+            return new FleetScheduler.TripRequest(
+                    options.dispatches().stream().map(d -> LocalTime.parse(d.time())).min(Comparator.naturalOrder()).orElseThrow(),
+                    options.cheapest().totalMoves(),
+                    options.byCost().stream().map(t -> new FleetScheduler.Candidate(t.droneId(), t.totalCost())).toList());
+        }
+
+        private List<TripOptions> split(TripOptions options) {
+            if (options.dispatches().size() == 1) {
+                return List.of();
+            }
+            logger.debug("No drone free to fly dispatches {} on {}, replanning them one trip each",
+                    options.dispatches().stream().map(MedDispatchRec::id).toList(), date);
+            List<TripOptions> singles = new ArrayList<>();
+            for (MedDispatchRec dispatch : options.dispatches()) {
+                planSingleTrip(dispatch, run).ifPresentOrElse(singles::add, () -> unscheduled.add(dispatch.id()));
+            }
+            return singles;
+        }
+
+        private void reject(TripOptions options) {
+            List<Long> ids = options.dispatches().stream().map(MedDispatchRec::id).toList();
+            logger.warn("No drone free to fly dispatches {} on {}, reporting them as unscheduled", ids, date);
+            unscheduled.addAll(ids);
+            TripRejectedEvent event = new TripRejectedEvent();
+            if (event.shouldCommit()) {
+                event.reason = "no_drone_free";
+                event.dispatches = options.dispatches().size();
+                event.candidateDrones = options.byCost().size();
+                event.moves = options.cheapest().totalMoves();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Runs the VRP solver over one day's dispatches and builds the real flight paths for its routes.
+     * @return the dispatches that still need planning (no feasible vehicle, or the A* path broke a limit).
+     */
+    private List<MedDispatchRec> planDayWithVrp(List<MedDispatchRec> dayDispatches, PlanningRun run, Consumer<TripOptions> planned) {
+        PlanningContext context = run.context;
+        List<VrpSolver.Vehicle> fleet = new ArrayList<>();
+        for (Drone drone : context.drones()) {
+            context.servicePointFor(drone.id()).ifPresent(base ->
+                    fleet.add(new VrpSolver.Vehicle(drone, base, context.scheduleOf(drone.id()))));
+        }
+
+        VrpSolver.Solution solution = run.timed(PlanningMetrics.Phase.ORDERING, () -> vrpSolver.solve(dayDispatches, fleet));
+        List<MedDispatchRec> leftovers = new ArrayList<>(solution.unassigned());
+
+        for (VrpSolver.Route route : solution.routes()) {
+            Drone drone = route.vehicle().drone();
+            ServicePoint base = route.vehicle().base();
+            // other vehicles from the same base fly the same path, so they are free alternatives for the scheduler
+            List<Drone> candidates = route.candidates().stream()
+                    .filter(v -> v.base().equals(base))
+                    .map(VrpSolver.Vehicle::drone)
+                    .toList();
+            Optional<TripOptions> tripOpt = planTripFromBase(base, candidates, route.dispatches(), run);
+            if (tripOpt.isPresent()) {
+                planned.accept(tripOpt.get());
+            } else {
+                logger.warn("VRP route for drone {} with {} dispatches failed after pathfinding, replanning greedily",
+                        drone.id(), route.dispatches().size());
+                run.subsetRejected();
+                leftovers.addAll(route.dispatches());
+            }
+        }
+        return leftovers;
     }
 
-    private Optional<Trip> planMultiDeliveryTrip(String droneId, List<MedDispatchRec> dispatches,
-                                                 List<Region> noFlyZones, Map<PathSegment, List<Position>> pathCache) {
-        Drone drone = droneService.findDroneDetailsById(droneId).orElse(null);
-        ServicePoint startPoint = findServicePointForDrone(droneId).orElse(null);
-        if (drone == null || startPoint == null) return Optional.empty();
+    /**
+     * Plans the trip with every candidate drone and keeps the cheapest feasible one.
+     * Drones based at the same service point fly the same path, so the path is built once per service point
+     * and those groups are evaluated in parallel, sharing the run's segment cache.
+     */
+    private Optional<TripOptions> planCheapestTrip(List<String> candidateIds, List<MedDispatchRec> dispatches, PlanningRun run) {
+        Map<ServicePoint, List<Drone>> candidatesByBase = new LinkedHashMap<>();
+        for (String droneId : candidateIds) {
+            Optional<Drone> drone = run.drone(droneId);
+            Optional<ServicePoint> base = run.base(droneId);
+            if (drone.isPresent() && base.isPresent()) {
+                candidatesByBase.computeIfAbsent(base.get(), sp -> new ArrayList<>()).add(drone.get());
+            }
+        }
+
+        if (candidatesByBase.size() <= 1) {
+            // nothing to parallelise, stay on the calling thread
+            return candidatesByBase.entrySet().stream().findFirst()
+                    .flatMap(e -> planGreedyTripFromBase(e.getKey(), e.getValue(), dispatches, run));
+        }
+
+        List<CompletableFuture<Optional<TripOptions>>> evaluations = candidatesByBase.entrySet().stream()
+                .map(e -> CompletableFuture.supplyAsync(
+                        () -> planGreedyTripFromBase(e.getKey(), e.getValue(), dispatches, run), planningExecutor))
+                .toList();
 
-        logger.debug("Planning multi-delivery trip for Drone ID '{}' with {} dispatches", droneId, dispatches.size());
+        // min keeps the first of equal costs, so ties still go to the earliest candidate
+        return evaluations.stream()
+                .map(CompletableFuture::join)
+                .flatMap(Optional::stream)
+                .min(Comparator.comparingDouble(options -> options.cheapest().totalCost()));
+    }
 
+    private Optional<TripOptions> planGreedyTripFromBase(ServicePoint startPoint, List<Drone> drones,
+                                                         List<MedDispatchRec> dispatches, PlanningRun run) {
         // Order deliveries using nearest-neighbor greedy approach
-        List<MedDispatchRec> orderedDispatches = orderDeliveriesGreedy(startPoint.location(), dispatches);
+        List<MedDispatchRec> orderedDispatches = run.timed(PlanningMetrics.Phase.ORDERING,
+                () -> orderDeliveriesGreedy(startPoint.location(), dispatches));
+        return planTripFromBase(startPoint, drones, orderedDispatches, run);
+    }
+
+    /**
+     * Builds the path for already ordered dispatches and prices it for each drone at the service point.
+     */
+    private Optional<TripOptions> planTripFromBase(ServicePoint startPoint, List<Drone> drones,
+                                                   List<MedDispatchRec> orderedDispatches, PlanningRun run) {
+        logger.debug("Planning trip from service point {} for {} candidate drones with {} dispatches",
+                startPoint.id(), drones.size(), orderedDispatches.size());
+        // both begin now so either one spans pathfinding and pricing, only one of them is committed
+        TripPlannedEvent planned = new TripPlannedEvent();
+        TripRejectedEvent rejected = new TripRejectedEvent();
+        planned.begin();
+        rejected.begin();
+
+        Optional<FlightPlan> plan = buildFlightPlan(startPoint, orderedDispatches, run);
+        if (plan.isEmpty()) {
+            tripRejected(rejected, "no_path", startPoint, orderedDispatches.size(), drones.size(), 0);
+            return Optional.empty();
+        }
+
+        List<Trip> priced = new ArrayList<>();
+        for (Drone drone : drones) {
+            priceTrip(drone, plan.get()).ifPresent(priced::add);
+        }
+        if (priced.isEmpty()) {
+            tripRejected(rejected, "over_limits", startPoint, orderedDispatches.size(), drones.size(), plan.get().totalMoves());
+            return Optional.empty();
+        }
+
+        // stable sort, equal costs keep candidate order
+        priced.sort(Comparator.comparingDouble(Trip::totalCost));
+        planned.end();
+        if (planned.shouldCommit()) {
+            planned.servicePointId = startPoint.id();
+            planned.dispatches = orderedDispatches.size();
+            planned.candidateDrones = drones.size();
+            planned.feasibleDrones = priced.size();
+            planned.cheapestDrone = priced.get(0).droneId();
+            planned.moves = priced.get(0).totalMoves();
+            planned.cost = priced.get(0).totalCost();
+            planned.commit();
+        }
+        return Optional.of(new TripOptions(orderedDispatches, priced));
+    }
 
-        logger.info("=== MULTI-DELIVERY TRIP START ===");
-        logger.info("Service Point: {}", startPoint.location());
-        logger.info("Ordered deliveries: {}", orderedDispatches.stream()
-                .map(d -> String.format("D%d@(%f,%f)", d.id(), d.delivery().lng(), d.delivery().lat()))
-                .collect(Collectors.joining(", ")));
+    private static void tripRejected(TripRejectedEvent event, String reason, ServicePoint startPoint, int dispatches,
+                                     int candidateDrones, int moves) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.servicePointId = startPoint.id();
+            event.dispatches = dispatches;
+            event.candidateDrones = candidateDrones;
+            event.moves = moves;
+            event.commit();
+        }
+    }
+
+    /**
+     * Builds the flight path from the service point through the dispatches in the given order and back.
+     */
+    private Optional<FlightPlan> buildFlightPlan(ServicePoint startPoint, List<MedDispatchRec> orderedDispatches, PlanningRun run) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Building trip from {} through {}", startPoint.location(),
+                    orderedDispatches.stream().map(MedDispatchRec::id).toList());
+        }
 
         List<DeliveryPathResponse.Delivery> deliverySegments = new ArrayList<>();
         Position currentPosition = startPoint.location();
@@ -200,113 +865,57 @@ public class PathServiceImpl implements PathService {
         for (int i = 0; i < orderedDispatches.size(); i++) {
             MedDispatchRec dispatch = orderedDispatches.get(i);
 
-            logger.info("\n--- Processing Delivery {} (#{} of {}) ---", dispatch.id(), i + 1, orderedDispatches.size());
-            logger.info("Current position BEFORE pathfinding: lng={}, lat={}",
-                    currentPosition.lng(), currentPosition.lat());
-            logger.info("Target delivery location: lng={}, lat={}",
-                    dispatch.delivery().lng(), dispatch.delivery().lat());
-
-            logger.info("Finding path from {} to {}", currentPosition, dispatch.delivery());
             // Path to this delivery
-            List<Position> pathToDelivery = getOrCalculatePath(currentPosition, dispatch.delivery(), noFlyZones, pathCache);
+            List<Position> pathToDelivery = run.path(currentPosition, dispatch.delivery());
             if (pathToDelivery.isEmpty()) {
                 logger.error("Cannot find path to delivery {}", dispatch.id());
                 return Optional.empty();
             }
 
-            logger.info("A* returned path with {} positions", pathToDelivery.size());
-            logger.info("Path STARTS at: lng={}, lat={}",
-                    pathToDelivery.get(0).lng(), pathToDelivery.get(0).lat());
-            logger.info("Path ENDS at: lng={}, lat={}",
-                    pathToDelivery.get(pathToDelivery.size() - 1).lng(),
-                    pathToDelivery.get(pathToDelivery.size() - 1).lat());
-
             // keep this check
             if (!pathToDelivery.get(0).equals(currentPosition)) {
-                logger.error("❌ PATH MISMATCH! Path doesn't start at current position!");
-                logger.error("Expected: lng={}, lat={}", currentPosition.lng(), currentPosition.lat());
-                logger.error("Got:      lng={}, lat={}", pathToDelivery.get(0).lng(), pathToDelivery.get(0).lat());
-                logger.error("Distance difference: {} meters",
+                logger.error("Path to delivery {} doesn't start at the current position: expected {}, got {} ({} meters off)",
+                        dispatch.id(), currentPosition, pathToDelivery.get(0),
                         geometryService.calculateDistance(currentPosition, pathToDelivery.get(0)) * 111000);
-            } else {
-                logger.info("✅ Path starts at correct position");
             }
 
             Position actualDeliveryPos = pathToDelivery.get(pathToDelivery.size() - 1);
 
-            // Build the delivery segment based on position in sequence
-            List<Position> deliveryFlightPath = new ArrayList<>();
-
-            if (i == 0) {
-                logger.info("Building FIRST delivery segment");
-                // for first delivery, starts from service point
-                deliveryFlightPath.addAll(pathToDelivery);
-                deliveryFlightPath.add(actualDeliveryPos); // Hover at end
-
-                logger.info("Added {} positions from path + 1 hover", pathToDelivery.size());
-
-                // if this is also the last delivery (single delivery case), return to S.P
-                if (orderedDispatches.size() == 1) {
-                    logger.info("This is the ONLY delivery, adding return path");
-                    List<Position> returnPath = getOrCalculatePath(actualDeliveryPos, startPoint.location(), noFlyZones, pathCache);
-                    if (returnPath.isEmpty()) {
-                        logger.error("Cannot find return path from delivery {}", dispatch.id());
-                        return Optional.empty();
-                    }
-                    deliveryFlightPath.addAll(returnPath.stream().skip(1).toList());
-
-
-                }
-            } else {
-                logger.info("Building SUBSEQUENT delivery segment");
-
-
-                deliveryFlightPath.addAll(pathToDelivery);  // Include full path
-
-                deliveryFlightPath.add(actualDeliveryPos); // Hover
-
-                logger.info("Added {} positions (skipped first) + 1 hover", pathToDelivery.size() - 1);
-
-                // If this is the last delivery, add return path to service point
-                if (i == orderedDispatches.size() - 1) {
-                    logger.info("This is the LAST delivery, adding return path");
-                    List<Position> returnPath = getOrCalculatePath(actualDeliveryPos, startPoint.location(), noFlyZones, pathCache);
-                    if (returnPath.isEmpty()) {
-                        logger.error("Cannot find return path from delivery {}", dispatch.id());
-                        return Optional.empty();
-                    }
-                    deliveryFlightPath.addAll(returnPath.stream().skip(1).toList());
-
+            // the path to the delivery (the first one starts from the service point), then hover
+            List<Position> deliveryFlightPath = new ArrayList<>(pathToDelivery);
+            deliveryFlightPath.add(actualDeliveryPos);
 
+            // after the last delivery, return to the service point
+            if (i == orderedDispatches.size() - 1) {
+                List<Position> returnPath = run.path(actualDeliveryPos, startPoint.location());
+                if (returnPath.isEmpty()) {
+                    logger.error("Cannot find return path from delivery {}", dispatch.id());
+                    return Optional.empty();
                 }
+                deliveryFlightPath.addAll(returnPath.stream().skip(1).toList());
             }
 
-            logger.info("Final delivery segment has {} positions", deliveryFlightPath.size());
-            logger.info("Segment STARTS at: lng={}, lat={}",
-                    deliveryFlightPath.get(0).lng(), deliveryFlightPath.get(0).lat());
-            logger.info("Segment ENDS at: lng={}, lat={}",
-                    deliveryFlightPath.get(deliveryFlightPath.size() - 1).lng(),
-                    deliveryFlightPath.get(deliveryFlightPath.size() - 1).lat());
-
             deliverySegments.add(new DeliveryPathResponse.Delivery(dispatch.id(), deliveryFlightPath));
             totalMoves += deliveryFlightPath.size() - 1;
-
-            logger.info("Updating currentPosition to actualDeliveryPos");
-            logger.info("OLD currentPosition: lng={}, lat={}", currentPosition.lng(), currentPosition.lat());
+            logger.debug("Delivery {} (#{} of {}): {} positions, {} moves so far",
+                    dispatch.id(), i + 1, orderedDispatches.size(), deliveryFlightPath.size(), totalMoves);
             currentPosition = actualDeliveryPos;
-            logger.info("NEW currentPosition: lng={}, lat={}", currentPosition.lng(), currentPosition.lat());
-            logger.info("Total moves so far: {}", totalMoves);
         }
 
-        logger.info("\n=== MULTI-DELIVERY TRIP SUMMARY ===");
-        logger.info("Total deliveries: {}", deliverySegments.size());
-        logger.info("Total moves: {}", totalMoves);
-        logger.info("Total cost: {}", drone.capability().costInitial() + drone.capability().costFinal()
-                + (totalMoves * drone.capability().costPerMove()));
+        logger.debug("Trip built: {} deliveries, {} moves", deliverySegments.size(), totalMoves);
+        return Optional.of(new FlightPlan(startPoint, orderedDispatches, deliverySegments, totalMoves));
+    }
+
+    /**
+     * Prices a flight plan for one drone, checking maxMoves and the pro-rata maxCost of every dispatch.
+     */
+    private Optional<Trip> priceTrip(Drone drone, FlightPlan plan) {
+        int totalMoves = plan.totalMoves();
+        List<MedDispatchRec> orderedDispatches = plan.orderedDispatches();
 
         // Check if total moves exceeds drone capacity
         if (totalMoves > drone.capability().maxMoves()) {
-            logger.warn("Multi-delivery trip exceeds maxMoves: {} > {}", totalMoves, drone.capability().maxMoves());
+            logger.debug("Trip exceeds maxMoves for drone {}: {} > {}", drone.id(), totalMoves, drone.capability().maxMoves());
             return Optional.empty();
         }
 
@@ -315,18 +924,18 @@ public class PathServiceImpl implements PathService {
 
 
         //Re-check maxCost with actual path cost (pro-rata)
-        double proRataCost = totalCost / dispatches.size();
-        for (MedDispatchRec dispatch : dispatches) {
+        double proRataCost = totalCost / orderedDispatches.size();
+        for (MedDispatchRec dispatch : orderedDispatches) {
             if (dispatch.requirements().maxCost() != null && proRataCost > dispatch.requirements().maxCost()) {
-                logger.warn("Trip exceeds maxCost for dispatch {}: pro-rata cost {} > max {}",
+                logger.debug("Trip exceeds maxCost for dispatch {}: pro-rata cost {} > max {}",
                         dispatch.id(), proRataCost, dispatch.requirements().maxCost());
                 return Optional.empty();
             }
         }
 
         // Return as a single DronePath with multiple deliveries
-        DeliveryPathResponse.DronePath dronePath = new DeliveryPathResponse.DronePath(droneId, deliverySegments);
-        return Optional.of(new Trip(droneId, startPoint, dronePath, totalCost, totalMoves));
+        DeliveryPathResponse.DronePath dronePath = new DeliveryPathResponse.DronePath(drone.id(), plan.deliveries());
+        return Optional.of(new Trip(drone.id(), plan.startPoint(), dronePath, totalCost, totalMoves));
     }
 
     private List<MedDispatchRec> orderDeliveriesGreedy(Position start, List<MedDispatchRec> dispatches) {
@@ -350,7 +959,7 @@ public class PathServiceImpl implements PathService {
     }
 
     @Override
-    public GeoJsonResponse calculateDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches) {
+    public GeoJsonResponse calculateDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches, boolean profile) {
         logger.info("Starting GeoJSON path calculation for {} dispatches.", dispatches.size());
 
         // Check if all dispatches are on the same date
@@ -364,7 +973,13 @@ public class PathServiceImpl implements PathService {
         }
 
         // Call the existing calcDeliveryPath
-        DeliveryPathResponse pathResponse = calculateDeliveryPath(dispatches);
+        PlanProfiler profiler = profile ? new PlanProfiler() : null;
+        DeliveryPathResponse pathResponse = calculate(dispatches, PlanningMode.GREEDY, PlanningListener.NONE, profiler, null);
+        GeoJsonResponse geoJson = toSingleDroneGeoJson(pathResponse);
+        return profiler == null ? geoJson : geoJson.withProfile(profiler.profile());
+    }
+
+    private GeoJsonResponse toSingleDroneGeoJson(DeliveryPathResponse pathResponse) {
 
         // Check if we got a valid response
         if (pathResponse.dronePaths().isEmpty()) {
@@ -406,20 +1021,4 @@ public class PathServiceImpl implements PathService {
 
         return GeoJsonResponse.fromPaths(trips);
     }
-
-    private List<Position> getOrCalculatePath(Position start, Position end, List<Region> noFlyZones, Map<PathSegment, List<Position>> cache) {
-        PathSegment segment = new PathSegment(start, end);
-        return cache.computeIfAbsent(segment, s -> pathfinder.findPath(s.start(), s.end(), noFlyZones));
-    }
-
-    private Optional<ServicePoint> findServicePointForDrone(String droneId) {
-        DroneForServicePoint[] availabilities = ilpRestClient.getDronesForServicePoints();
-        ServicePoint[] servicePoints = ilpRestClient.getServicePoints();
-        for (DroneForServicePoint spAvail : availabilities) {
-            if (spAvail.drones().stream().anyMatch(d -> d.id().equals(droneId))) {
-                return Arrays.stream(servicePoints).filter(sp -> sp.id().equals(spAvail.servicePointId())).findFirst();
-            }
-        }
-        return Optional.empty();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Avoids re-planning the same dispatch batch. Batches are keyed on a canonical hash of the dispatches, the planning
+ * mode and the reference-data version; concurrent identical requests share one in-flight calculation, and finished
+ * plans are kept for a while in a bounded cache.
+ * An Idempotency-Key pins a plan to the key, so retrying with the same key returns the same plan even if the
+ * reference data has changed in between. The key is reserved before planning starts, so a concurrent retry waits
+ * for that plan and a different batch under the same key is rejected rather than overwriting it.
+ */
+@Service
+public class PlanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanCache.class);
+
+    // the plan is still running while its future is incomplete
+    private record IdempotentPlan(String batchHash, CompletableFuture<DeliveryPathResponse> plan) {}
+
+    private final PathService pathService;
+    private final IlpRestClient ilpRestClient;
+    private final boolean enabled;
+    private final ConcurrentMap<String, CompletableFuture<DeliveryPathResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ExpiringStore<String, DeliveryPathResponse> plans;
+    private final ExpiringStore<String, IdempotentPlan> idempotentPlans;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PlanCache(PathService pathService, IlpRestClient ilpRestClient,
+                     @Value("${ilp.plan-cache.enabled:true}") boolean enabled,
+                     @Value("${ilp.plan-cache.ttl:PT5M}") Duration ttl,
+                     @Value("${ilp.plan-cache.max-entries:200}") int maxEntries,
+                     @Value("${ilp.plan-cache.idempotency-ttl:PT24H}") Duration idempotencyTtl,
+                     @Value("${ilp.idempotency.max-entries:10000}") int maxIdempotencyKeys) {
+        this.pathService = pathService;
+        this.ilpRestClient = ilpRestClient;
+        this.enabled = enabled;
+        this.plans = new ExpiringStore<>(ttl, maxEntries, Clock.systemUTC());
+        // one entry per client retry key, not per distinct batch, so sized on its own
+        this.idempotentPlans = new ExpiringStore<>(idempotencyTtl, maxIdempotencyKeys, Clock.systemUTC());
+    }
+
+    /**
+     * Returns the plan for the batch, computing it only if no identical request is cached or running.
+     * @param idempotencyKey optional, null or blank when the client did not send one
+     * @throws IdempotencyKeyReusedException if the idempotency key was already used for a different batch
+     */
+    public DeliveryPathResponse plan(List<MedDispatchRec> dispatches, PlanningMode mode, String idempotencyKey) {
+        if (!enabled) {
+            return pathService.calculateDeliveryPath(dispatches, mode);
+        }
+
+        String batchHash = batchHash(dispatches, mode);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return cachedOrCompute(batchHash, dispatches, mode);
+        }
+
+        IdempotentPlan reservation = new IdempotentPlan(batchHash, new CompletableFuture<>());
+        Optional<IdempotentPlan> previous = idempotentPlans.putIfAbsent(idempotencyKey, reservation);
+        if (previous.isPresent()) {
+            if (!previous.get().batchHash().equals(batchHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            hits.incrementAndGet();
+            return await(previous.get().plan());
+        }
+        try {
+            DeliveryPathResponse plan = cachedOrCompute(batchHash, dispatches, mode);
+            reservation.plan().complete(plan);
+            return plan;
+        } catch (RuntimeException e) {
+            // a failed plan isn't pinned, the key can be retried
+            idempotentPlans.remove(idempotencyKey, reservation);
+            reservation.plan().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // keyed on the version of the snapshot the plan is computed from, read once
+    private DeliveryPathResponse cachedOrCompute(String batchHash, List<MedDispatchRec> dispatches, PlanningMode mode) {
+        PlanningContext context = PlanningContext.load(ilpRestClient);
+        String key = batchHash + ":" + context.version();
+        Optional<DeliveryPathResponse> cached = plans.get(key);
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+            return cached.get();
+        }
+
+        CompletableFuture<DeliveryPathResponse> created = new CompletableFuture<>();
+        CompletableFuture<DeliveryPathResponse> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            hits.incrementAndGet();
+            logger.debug("Joining in-flight calculation for batch {}", key);
+            return await(running);
+        }
+
+        misses.incrementAndGet();
+        try {
+            DeliveryPathResponse plan = pathService.calculateDeliveryPathFrom(List.copyOf(dispatches), mode, context);
+            plans.put(key, plan);
+            created.complete(plan);
+            return plan;
+        } catch (RuntimeException e) {
+            // failures aren't cached, whoever was waiting gets the same exception
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private static DeliveryPathResponse await(CompletableFuture<DeliveryPathResponse> plan) {
+        try {
+            return plan.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * SHA-256 over a canonical form of the batch: order is kept (the planner is order-sensitive), and a missing
+     * cooling/heating flag is written the same as false since the planner treats them the same.
+     */
+    static String batchHash(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        StringBuilder canonical = new StringBuilder(mode.name());
+        for (MedDispatchRec d : dispatches) {
+            MedDispatchRec.Requirements r = d.requirements();
+            canonical.append('|').append(d.id())
+                    .append(',').append(d.date())
+                    .append(',').append(d.time())
+                    .append(',').append(r == null ? "-" : r.capacity() + "," + Boolean.TRUE.equals(r.cooling())
+                            + "," + Boolean.TRUE.equals(r.heating()) + "," + r.maxCost())
+                    .append(',').append(d.delivery() == null ? "-" : d.delivery().lng() + "," + d.delivery().lat());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.PlanDiff;
+
+import java.util.List;
+
+/**
+ * Incremental replanning: edits repair only the trip they touch and then reschedule that day.
+ */
+public interface PlanEditor {
+
+    /**
+     * Plans the dispatches like /calcDeliveryPath, keeping the state needed for later edits.
+     * @throws IllegalArgumentException if two dispatches share an id
+     */
+    EditablePlan createPlan(List<MedDispatchRec> dispatches, PlanningMode mode);
+
+    /**
+     * Adds a dispatch by cheapest insertion into an existing trip of its day, or as a new trip if that's cheaper.
+     * @throws IllegalArgumentException if the plan already has a dispatch with that id
+     */
+    PlanDiff insertDispatch(EditablePlan plan, MedDispatchRec dispatch);
+
+    /**
+     * Cancels a dispatch and repairs the trip it was on.
+     * @throws IllegalArgumentException if the plan has no dispatch with that id
+     */
+    PlanDiff removeDispatch(EditablePlan plan, long dispatchId);
+}
@@ -0,0 +1,99 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.PlanProfile;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Collects the profile of one delivery path calculation. Only created when a request asks for it.
+ * A* runs on the thread that missed the segment cache, so a search is attributed to the lookup that is bound
+ * to the current thread when it finishes; a lookup that ran no search was answered by the cache.
+ */
+final class PlanProfiler {
+
+    // the lookup in progress on this thread, if it belongs to a profiled request
+    private static final ThreadLocal<Lookup> currentLookup = new ThreadLocal<>();
+
+    private final Queue<PlanProfile.Search> searches = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger segmentHits = new AtomicInteger();
+    private final AtomicInteger segmentMisses = new AtomicInteger();
+    private final AtomicInteger rejectedSubsets = new AtomicInteger();
+
+    private static final class Lookup {
+        private final PlanProfiler profiler;
+        private boolean searched;
+
+        Lookup(PlanProfiler profiler) {
+            this.profiler = profiler;
+        }
+    }
+
+    /**
+     * Runs a segment lookup, counting it as a hit unless A* ran for it.
+     */
+    List<Position> lookup(Supplier<List<Position>> segment) {
+        Lookup lookup = new Lookup(this);
+        Lookup outer = currentLookup.get();
+        currentLookup.set(lookup);
+        try {
+            return segment.get();
+        } finally {
+            currentLookup.set(outer);
+            (lookup.searched ? segmentMisses : segmentHits).incrementAndGet();
+        }
+    }
+
+    /**
+     * Called by A* when a search finishes; does nothing unless a profiled lookup is running on this thread.
+     */
+    static void searchFinished(Position start, Position end, String outcome, long nanos, int expanded, int peakOpen) {
+        Lookup lookup = currentLookup.get();
+        if (lookup == null) {
+            return;
+        }
+        lookup.searched = true;
+        lookup.profiler.searches.add(new PlanProfile.Search(start, end, outcome, expanded, peakOpen, millis(nanos)));
+    }
+
+    void subsetRejected() {
+        rejectedSubsets.incrementAndGet();
+    }
+
+    private volatile PlanProfile profile;
+
+    /**
+     * Freezes the profile once the calculation is done.
+     */
+    void complete(long totalNanos, Function<PlanningMetrics.Phase, Long> phaseNanos, PlanningContext context,
+                  Instant startedAt) {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (PlanningMetrics.Phase phase : PlanningMetrics.Phase.values()) {
+            phases.put(phase.name().toLowerCase(), millis(phaseNanos.apply(phase)));
+        }
+        PlanProfile.ReferenceData referenceData = new PlanProfile.ReferenceData(context.version(), context.fetchedAt(),
+                !context.fetchedAt().isBefore(startedAt));
+        List<PlanProfile.Search> slowestFirst = searches.stream()
+                .sorted(Comparator.comparingDouble(PlanProfile.Search::millis).reversed())
+                .toList();
+        profile = new PlanProfile(millis(totalNanos), phases, referenceData, segmentHits.get(), segmentMisses.get(),
+                rejectedSubsets.get(), slowestFirst);
+    }
+
+    PlanProfile profile() {
+        return profile;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
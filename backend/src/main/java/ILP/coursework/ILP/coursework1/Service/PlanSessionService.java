@@ -0,0 +1,60 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.PlanDiff;
+import ILP.coursework.ILP.coursework1.dto.PlanResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps editable plans between requests. A plan expires after a period without edits, and only the most recent
+ * ones are kept, since each holds every day's trips with all their candidate drones.
+ */
+@Service
+public class PlanSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanSessionService.class);
+
+    private final PlanEditor planEditor;
+    private final ExpiringStore<String, EditablePlan> plans;
+
+    public PlanSessionService(PlanEditor planEditor,
+                              @Value("${ilp.plans.ttl:PT1H}") Duration ttl,
+                              @Value("${ilp.plans.max-retained:50}") int maxRetained) {
+        this.planEditor = planEditor;
+        this.plans = new ExpiringStore<>(ttl, maxRetained, Clock.systemUTC());
+    }
+
+    public PlanResource create(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        EditablePlan plan = planEditor.createPlan(dispatches, mode);
+        String planId = UUID.randomUUID().toString();
+        plans.put(planId, plan);
+        logger.info("Created editable plan {} with {} dispatches", planId, dispatches.size());
+        return new PlanResource(planId, plan.current(), null);
+    }
+
+    public Optional<PlanResource> get(String planId) {
+        return plans.get(planId).map(plan -> new PlanResource(planId, plan.current(), null));
+    }
+
+    public Optional<PlanResource> insertDispatch(String planId, MedDispatchRec dispatch) {
+        return plans.get(planId).map(plan -> edited(planId, plan, planEditor.insertDispatch(plan, dispatch)));
+    }
+
+    public Optional<PlanResource> removeDispatch(String planId, long dispatchId) {
+        return plans.get(planId).map(plan -> edited(planId, plan, planEditor.removeDispatch(plan, dispatchId)));
+    }
+
+    private PlanResource edited(String planId, EditablePlan plan, PlanDiff diff) {
+        plans.put(planId, plan); // an edit keeps the plan alive
+        return new PlanResource(planId, plan.current(), diff);
+    }
+}
@@ -0,0 +1,104 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The reference data one request works from: loaded once, then looked up by id instead of re-fetching and
+ * scanning the ILP datasets for every trip. Everything in it comes from the same snapshot; the fleet lookups
+ * come from the {@link FleetIndex} shared by every request on that snapshot.
+ */
+public final class PlanningContext {
+
+    private final ReferenceDataSnapshot snapshot;
+    private final FleetIndex fleet;
+    private final List<Region> noFlyZones;
+
+    private PlanningContext(ReferenceDataSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.fleet = FleetIndex.of(snapshot);
+        this.noFlyZones = snapshot.restrictedAreas().stream()
+                .map(ra -> new Region(ra.name(), ra.vertices()))
+                .toList();
+    }
+
+    public static PlanningContext of(ReferenceDataSnapshot snapshot) {
+        return new PlanningContext(snapshot);
+    }
+
+    /**
+     * Loads a context with a single snapshot read from the client.
+     */
+    public static PlanningContext load(IlpRestClient ilpRestClient) {
+        return new PlanningContext(ilpRestClient.snapshot());
+    }
+
+    public long version() {
+        return snapshot.version();
+    }
+
+    public Instant fetchedAt() {
+        return snapshot.fetchedAt();
+    }
+
+    /**
+     * Changes only when the restricted areas do, anything derived from the no-fly zones alone can be kept until then.
+     */
+    public long zonesVersion() {
+        return snapshot.zonesVersion();
+    }
+
+    public FleetIndex fleet() {
+        return fleet;
+    }
+
+    public Collection<Drone> drones() {
+        return fleet.drones();
+    }
+
+    public List<ServicePoint> servicePoints() {
+        return snapshot.servicePoints();
+    }
+
+    public List<DroneForServicePoint> dronesForServicePoints() {
+        return snapshot.dronesForServicePoints();
+    }
+
+    public List<Region> noFlyZones() {
+        return noFlyZones;
+    }
+
+    public Optional<Drone> drone(String droneId) {
+        return fleet.drone(droneId);
+    }
+
+    public Optional<ServicePoint> servicePointFor(String droneId) {
+        return fleet.servicePointFor(droneId);
+    }
+
+    public List<DroneForServicePoint.Availability> availabilityOf(String droneId) {
+        return fleet.availabilityOf(droneId);
+    }
+
+    public AvailabilityIndex.Schedule scheduleOf(String droneId) {
+        return fleet.scheduleOf(droneId);
+    }
+
+    /**
+     * Whether the drone has an availability window on that day covering the time, [from, until).
+     */
+    public boolean isAvailable(String droneId, DayOfWeek day, LocalTime time) {
+        return fleet.isAvailable(droneId, day, time);
+    }
+}
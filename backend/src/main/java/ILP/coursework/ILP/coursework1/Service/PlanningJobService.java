@@ -0,0 +1,112 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.PlanningJobStatus;
+import ILP.coursework.ILP.coursework1.dto.PlanningJobStatus.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs delivery path calculations in the background so large batches don't hold a request thread.
+ * Jobs run on a bounded worker pool; a full queue rejects new jobs instead of piling them up.
+ * Finished jobs are kept for a limited time and up to a maximum count.
+ */
+@Service
+public class PlanningJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanningJobService.class);
+
+    private final PathService pathService;
+    private final ExecutorService jobExecutor;
+    private final Map<String, PlanningJob> activeJobs = new ConcurrentHashMap<>();
+    private final ExpiringStore<String, PlanningJobStatus> finishedJobs;
+
+    public PlanningJobService(PathService pathService,
+                              @Qualifier("planningJobExecutor") ExecutorService jobExecutor,
+                              @Value("${ilp.jobs.result-ttl:PT10M}") Duration resultTtl,
+                              @Value("${ilp.jobs.max-retained:100}") int maxRetained) {
+        this.pathService = pathService;
+        this.jobExecutor = jobExecutor;
+        this.finishedJobs = new ExpiringStore<>(resultTtl, maxRetained, Clock.systemUTC());
+    }
+
+    // mutable state of a job that hasn't finished yet
+    private static final class PlanningJob implements PlanningListener {
+        private final String id;
+        private final int totalDispatches;
+        private volatile State state = State.QUEUED;
+        private volatile int dispatchesPlanned;
+
+        PlanningJob(String id, int totalDispatches) {
+            this.id = id;
+            this.totalDispatches = totalDispatches;
+        }
+
+        @Override
+        public void onProgress(int dispatchesPlanned, int totalDispatches) {
+            this.dispatchesPlanned = dispatchesPlanned;
+        }
+
+        PlanningJobStatus status() {
+            return new PlanningJobStatus(id, state, dispatchesPlanned, totalDispatches, null, null);
+        }
+    }
+
+    /**
+     * Queues a calculation and returns straight away.
+     * @throws RejectedExecutionException when the worker queue is full
+     */
+    public PlanningJobStatus submit(List<MedDispatchRec> dispatches, PlanningMode mode) {
+        PlanningJob job = new PlanningJob(UUID.randomUUID().toString(), dispatches.size());
+        PlanningJobStatus queued = job.status(); // taken now, a worker may pick the job up straight away
+        activeJobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, List.copyOf(dispatches), mode));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.id);
+            logger.warn("Planning job queue is full, rejecting job with {} dispatches", dispatches.size());
+            throw e;
+        }
+        logger.info("Queued planning job {} with {} dispatches", job.id, dispatches.size());
+        return queued;
+    }
+
+    public Optional<PlanningJobStatus> getStatus(String jobId) {
+        PlanningJob active = activeJobs.get(jobId);
+        if (active != null) {
+            return Optional.of(active.status());
+        }
+        return finishedJobs.get(jobId);
+    }
+
+    private void run(PlanningJob job, List<MedDispatchRec> dispatches, PlanningMode mode) {
+        job.state = State.RUNNING;
+        PlanningJobStatus finished;
+        try {
+            DeliveryPathResponse result = pathService.calculateDeliveryPath(dispatches, mode, job);
+            finished = new PlanningJobStatus(job.id, State.COMPLETED, job.totalDispatches, job.totalDispatches, result, null);
+            logger.info("Planning job {} completed", job.id);
+        } catch (RuntimeException e) {
+            logger.error("Planning job {} failed", job.id, e);
+            finished = new PlanningJobStatus(job.id, State.FAILED, job.dispatchesPlanned, job.totalDispatches, null,
+                    e.getClass().getSimpleName());
+        }
+        // publish the result before dropping the active entry so a poll never sees neither
+        finishedJobs.put(job.id, finished);
+        activeJobs.remove(job.id);
+    }
+}
@@ -0,0 +1,23 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+
+/**
+ * Callback for following a delivery path calculation while it runs.
+ * Every method has a no-op default so callers only implement what they need.
+ */
+public interface PlanningListener {
+
+    PlanningListener NONE = new PlanningListener() {};
+
+    /**
+     * Called whenever dispatches have been handled, either planned into a trip or skipped.
+     */
+    default void onProgress(int dispatchesPlanned, int totalDispatches) {}
+
+    /**
+     * Called once per trip as soon as it is final, i.e. once the day's event queue has reached it and no dispatch
+     * still to be planned could be ready before it. VRP routes come once the solver is done with their day.
+     */
+    default void onTripPlanned(DeliveryPathResponse.DronePath dronePath) {}
+}
@@ -0,0 +1,114 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The planner's meters, exported on /actuator/prometheus: A* searches, segment cache lookups, time per planning
+ * phase and whole requests by batch size.
+ */
+@Component
+public class PlanningMetrics {
+
+    /**
+     * The parts of a delivery path calculation that get their own timer. Pathfinding is summed over the threads
+     * evaluating candidates, so it can be more than the request's wall-clock time.
+     */
+    public enum Phase { REFERENCE_DATA, DRONE_FILTERING, ORDERING, PATHFINDING, SCHEDULING, ASSEMBLY }
+
+    // batch sizes we bucket dispatch counts into, as tag values and histogram boundaries
+    private static final int[] BATCH_BOUNDS = {1, 5, 10, 25, 50, 100, 250};
+
+    private final MeterRegistry registry;
+    private final Counter segmentHits;
+    private final Counter segmentMisses;
+    private final DistributionSummary expandedNodes;
+    private final DistributionSummary peakOpenSet;
+    private final DistributionSummary dispatchCounts;
+
+    public PlanningMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.segmentHits = Counter.builder("ilp.segment.cache").tag("result", "hit")
+                .description("A* segment lookups answered from the cache").register(registry);
+        this.segmentMisses = Counter.builder("ilp.segment.cache").tag("result", "miss")
+                .description("A* segment lookups that ran a search").register(registry);
+        this.expandedNodes = DistributionSummary.builder("ilp.astar.expanded")
+                .description("Nodes expanded per A* search").register(registry);
+        this.peakOpenSet = DistributionSummary.builder("ilp.astar.open.peak")
+                .description("Largest open set per A* search").register(registry);
+        this.dispatchCounts = DistributionSummary.builder("ilp.planning.dispatches")
+                .description("Dispatches per delivery path calculation")
+                .serviceLevelObjectives(toDoubles(BATCH_BOUNDS))
+                .register(registry);
+    }
+
+    /**
+     * For planners built outside Spring (tests, benchmarks): meters go to a private registry nobody scrapes.
+     */
+    public static PlanningMetrics standalone() {
+        return new PlanningMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * @param outcome "found", "no_path" or "max_iterations"
+     */
+    public void recordSearch(String outcome, long nanos, int expanded, int peakOpen) {
+        Timer.builder("ilp.astar.search").tag("outcome", outcome)
+                .description("A* searches by outcome")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        expandedNodes.record(expanded);
+        peakOpenSet.record(peakOpen);
+    }
+
+    public void recordSegmentLookup(boolean hit) {
+        (hit ? segmentHits : segmentMisses).increment();
+    }
+
+    public void recordPhase(PlanningMode mode, Phase phase, long nanos) {
+        Timer.builder("ilp.planning.phase").tag("mode", mode.name()).tag("phase", phase.name().toLowerCase())
+                .description("Time per planning phase")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPlanning(PlanningMode mode, int dispatches, long nanos) {
+        Timer.builder("ilp.planning.request").tag("mode", mode.name()).tag("batch", batchBucket(dispatches))
+                .description("Delivery path calculations by mode and batch size")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        dispatchCounts.record(dispatches);
+    }
+
+    /**
+     * A batch size as a tag value: "0", "1", "2-5", "6-10", ... , "251+".
+     */
+    public static String batchBucket(int dispatches) {
+        if (dispatches <= 0) {
+            return "0";
+        }
+        int lower = 1;
+        for (int bound : BATCH_BOUNDS) {
+            if (dispatches <= bound) {
+                return lower == bound ? String.valueOf(bound) : lower + "-" + bound;
+            }
+            lower = bound + 1;
+        }
+        return lower + "+";
+    }
+
+    private static double[] toDoubles(int[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+/**
+ * Selects which planner builds the trips for a delivery path request.
+ * GREEDY is the original prefix/subset loop, VRP is the fleet-wide savings + local search solver.
+ */
+public enum PlanningMode {
+    GREEDY,
+    VRP;
+
+    /**
+     * Parses the mode from a request parameter, case-insensitive.
+     * @throws IllegalArgumentException for unknown modes, which the ControllerAdvice turns into a 400.
+     */
+    public static PlanningMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return GREEDY;
+        }
+        return PlanningMode.valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,90 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+
+import java.util.List;
+
+/**
+ * A region validated once and flattened into primitive arrays, for testing many points against it.
+ * Gives the same answers as {@link GeometryService#isPointInRegion}: points on an edge count as inside.
+ */
+public final class PreparedRegion {
+
+    private static final double EDGE_TOLERANCE = 1e-9;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] edgeLengths;
+    private final double minX, maxX, minY, maxY;
+
+    private PreparedRegion(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        this.edgeLengths = new double[xs.length - 1];
+        double longestEdge = 0;
+        for (int i = 0; i < edgeLengths.length; i++) {
+            edgeLengths[i] = distance(xs[i], ys[i], xs[i + 1], ys[i + 1]);
+            longestEdge = Math.max(longestEdge, edgeLengths[i]);
+        }
+
+        // a point off the bounding box can still pass the edge test's tolerance, by at most this much
+        double margin = Math.sqrt(longestEdge * EDGE_TOLERANCE) + EDGE_TOLERANCE;
+        double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            x0 = Math.min(x0, xs[i]);
+            x1 = Math.max(x1, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+        this.minX = x0 - margin;
+        this.maxX = x1 + margin;
+        this.minY = y0 - margin;
+        this.maxY = y1 + margin;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the region is not a closed polygon with at least 4 vertices
+     */
+    public static PreparedRegion of(Region region) {
+        List<Position> vertices = region.vertices();
+        if (vertices == null || vertices.size() < 4 || !vertices.get(0).equals(vertices.get(vertices.size() - 1))) {
+            throw new IllegalArgumentException();
+        }
+        double[] xs = new double[vertices.size()];
+        double[] ys = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            xs[i] = vertices.get(i).lng();
+            ys[i] = vertices.get(i).lat();
+        }
+        return new PreparedRegion(xs, ys);
+    }
+
+    public boolean contains(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        for (int i = 0; i < edgeLengths.length; i++) {
+            double excess = distance(x, y, xs[i], ys[i]) + distance(x, y, xs[i + 1], ys[i + 1]) - edgeLengths[i];
+            if (Math.abs(excess) < EDGE_TOLERANCE) {
+                return true;
+            }
+        }
+
+        // ray casting, same as GeometryServiceImpl
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    // same operation order as GeometryServiceImpl.calculateDistance so results match exactly
+    static double distance(double x1, double y1, double x2, double y2) {
+        double deltaLat = y2 - y1;
+        double deltaLng = x2 - x1;
+        return Math.sqrt(deltaLat * deltaLat + deltaLng * deltaLng);
+    }
+}
@@ -0,0 +1,81 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of A* results for one set of no-fly zones.
+ * Concurrent requests for the same segment wait for the first search instead of running their own,
+ * so evaluating candidate drones in parallel never runs A* twice for the same start/end.
+ */
+public class SegmentCache {
+
+    private record PathSegment(Position start, Position end) {}
+
+    private final AStarPathfinder pathfinder;
+    private final List<Region> noFlyZones;
+    private final ConcurrentMap<PathSegment, CompletableFuture<List<Position>>> segments = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final PlanningMetrics metrics;
+
+    public SegmentCache(AStarPathfinder pathfinder, List<Region> noFlyZones) {
+        this(pathfinder, noFlyZones, PlanningMetrics.standalone());
+    }
+
+    public SegmentCache(AStarPathfinder pathfinder, List<Region> noFlyZones, PlanningMetrics metrics) {
+        this.pathfinder = pathfinder;
+        this.noFlyZones = noFlyZones;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the cached path from start to end, running A* if no one has asked for it yet.
+     * An empty list means A* could not find a path.
+     */
+    public List<Position> path(Position start, Position end) {
+        PathSegment segment = new PathSegment(start, end);
+        CompletableFuture<List<Position>> created = new CompletableFuture<>();
+        CompletableFuture<List<Position>> existing = segments.putIfAbsent(segment, created);
+        if (existing != null) {
+            hits.incrementAndGet();
+            metrics.recordSegmentLookup(true);
+            return existing.join();
+        }
+
+        misses.incrementAndGet();
+        metrics.recordSegmentLookup(false);
+        try {
+            List<Position> path = pathfinder.findPath(start, end, noFlyZones);
+            created.complete(path);
+            return path;
+        } catch (RuntimeException e) {
+            // don't cache failures, waiting threads get the exception and later callers retry
+            segments.remove(segment, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public List<Region> noFlyZones() {
+        return noFlyZones;
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+}
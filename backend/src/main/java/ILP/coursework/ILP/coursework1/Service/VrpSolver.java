@@ -0,0 +1,414 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Date-level vehicle routing solver used by the VRP planning mode.
+ * Builds initial routes with Clarke-Wright savings and then improves them with relocate/exchange moves.
+ * All costs here are estimates from straight-line distance, the actual flight paths are built (and re-checked)
+ * by PathServiceImpl with A*.
+ */
+@Component
+public class VrpSolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(VrpSolver.class);
+    private static final double MOVE_DISTANCE = 0.00015;
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_IMPROVEMENT_PASSES = 25;
+    private static final int NEIGHBOUR_COUNT = 15;
+
+    private final GeometryService geometryService;
+
+    public VrpSolver(GeometryService geometryService) {
+        this.geometryService = geometryService;
+    }
+
+    /**
+     * A drone that can fly routes, together with the service point it starts and ends at and its availability
+     * as compiled in the fleet index.
+     */
+    public record Vehicle(Drone drone, ServicePoint base, AvailabilityIndex.Schedule availability) {}
+
+    /**
+     * One planned trip: the vehicle and the dispatches in flying order.
+     * Candidates are every vehicle that could fly the route, cheapest first (the chosen vehicle leads).
+     */
+    public record Route(Vehicle vehicle, List<MedDispatchRec> dispatches, double estimatedCost, List<Vehicle> candidates) {}
+
+    /**
+     * Routes found by the solver, plus dispatches no vehicle could serve on its own.
+     */
+    public record Solution(List<Route> routes, List<MedDispatchRec> unassigned) {}
+
+    // best vehicle for a sequence, vehicle == -1 means infeasible
+    private record Assignment(int vehicle, double cost) {
+        static final Assignment INFEASIBLE = new Assignment(-1, Double.POSITIVE_INFINITY);
+
+        boolean feasible() {
+            return vehicle >= 0;
+        }
+    }
+
+    private static final class WorkingRoute {
+        List<Integer> seq;
+        Assignment assignment;
+
+        WorkingRoute(List<Integer> seq, Assignment assignment) {
+            this.seq = seq;
+            this.assignment = assignment;
+        }
+
+        double cost() {
+            return seq.isEmpty() ? 0 : assignment.cost();
+        }
+    }
+
+    private record Saving(int i, int j, double value) {}
+
+    /**
+     * Solves the routing problem for dispatches that all fall on the same date.
+     */
+    public Solution solve(List<MedDispatchRec> dispatches, List<Vehicle> fleet) {
+        if (dispatches.isEmpty() || fleet.isEmpty()) {
+            return new Solution(List.of(), List.copyOf(dispatches));
+        }
+        return new Instance(dispatches, fleet).run();
+    }
+
+    /**
+     * Holds the precomputed matrices for a single solve call.
+     */
+    private final class Instance {
+        private final List<MedDispatchRec> dispatches;
+        private final List<Vehicle> fleet;
+        private final int n;
+        private final int m;
+        private final double[][] dist;       // dispatch -> dispatch
+        private final double[][] baseDist;   // vehicle -> dispatch
+        private final boolean[][] eligible;  // dispatch -> vehicle (capability + availability)
+        private final int[][] neighbours;
+        private final List<WorkingRoute> routes = new ArrayList<>();
+        private final WorkingRoute[] routeOf;
+
+        Instance(List<MedDispatchRec> dispatches, List<Vehicle> fleet) {
+            this.dispatches = dispatches;
+            this.fleet = fleet;
+            this.n = dispatches.size();
+            this.m = fleet.size();
+            this.dist = new double[n][n];
+            this.baseDist = new double[m][n];
+            this.eligible = new boolean[n][m];
+            this.neighbours = new int[n][];
+            this.routeOf = new WorkingRoute[n];
+
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    double d = geometryService.calculateDistance(dispatches.get(i).delivery(), dispatches.get(j).delivery());
+                    dist[i][j] = d;
+                    dist[j][i] = d;
+                }
+            }
+            for (int v = 0; v < m; v++) {
+                for (int i = 0; i < n; i++) {
+                    baseDist[v][i] = geometryService.calculateDistance(fleet.get(v).base().location(), dispatches.get(i).delivery());
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                MedDispatchRec dispatch = dispatches.get(i);
+                DayOfWeek day = LocalDate.parse(dispatch.date()).getDayOfWeek();
+                LocalTime time = LocalTime.parse(dispatch.time());
+                for (int v = 0; v < m; v++) {
+                    Drone.Capability capability = fleet.get(v).drone().capability();
+                    eligible[i][v] = capability.capacity() >= dispatch.requirements().capacity()
+                            && (!Boolean.TRUE.equals(dispatch.requirements().cooling()) || capability.cooling())
+                            && (!Boolean.TRUE.equals(dispatch.requirements().heating()) || capability.heating())
+                            && fleet.get(v).availability().isAvailable(day, time);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                final int from = i;
+                neighbours[i] = IntStream.range(0, n)
+                        .filter(j -> j != from)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble(j -> dist[from][j]))
+                        .limit(NEIGHBOUR_COUNT)
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+
+        Solution run() {
+            List<MedDispatchRec> unassigned = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                List<Integer> seq = new ArrayList<>(List.of(i));
+                Assignment assignment = evaluate(seq);
+                if (!assignment.feasible()) {
+                    unassigned.add(dispatches.get(i));
+                    continue;
+                }
+                WorkingRoute route = new WorkingRoute(seq, assignment);
+                routes.add(route);
+                routeOf[i] = route;
+            }
+
+            buildSavingsRoutes();
+            double afterSavings = totalCost();
+
+            int passes = 0;
+            boolean improved = true;
+            while (improved && passes < MAX_IMPROVEMENT_PASSES) {
+                improved = relocatePass();
+                improved |= exchangePass();
+                routes.removeIf(r -> r.seq.isEmpty());
+                passes++;
+            }
+
+            logger.debug("VRP solved {} dispatches into {} routes: savings cost {}, improved cost {} after {} passes",
+                    n, routes.size(), afterSavings, totalCost(), passes);
+
+            List<Route> result = routes.stream()
+                    .sorted(Comparator.comparingInt(r -> Collections.min(r.seq)))
+                    .map(r -> new Route(
+                            fleet.get(r.assignment.vehicle()),
+                            r.seq.stream().map(dispatches::get).toList(),
+                            r.assignment.cost(),
+                            feasibleVehicles(r.seq)))
+                    .toList();
+            return new Solution(result, unassigned);
+        }
+
+        private void buildSavingsRoutes() {
+            List<Saving> savings = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (routeOf[i] == null) continue;
+                for (int j = i + 1; j < n; j++) {
+                    if (routeOf[j] == null) continue;
+                    int vi = routeOf[i].assignment.vehicle();
+                    int vj = routeOf[j].assignment.vehicle();
+                    double saving = Math.max(
+                            baseDist[vi][i] + baseDist[vi][j] - dist[i][j],
+                            baseDist[vj][i] + baseDist[vj][j] - dist[i][j]);
+                    if (saving > EPSILON) {
+                        savings.add(new Saving(i, j, saving));
+                    }
+                }
+            }
+            savings.sort(Comparator.comparingDouble(Saving::value).reversed());
+
+            for (Saving saving : savings) {
+                WorkingRoute ri = routeOf[saving.i()];
+                WorkingRoute rj = routeOf[saving.j()];
+                if (ri == rj || !isEndpoint(ri, saving.i()) || !isEndpoint(rj, saving.j())) {
+                    continue;
+                }
+
+                // orient so that i is the last stop of its route and j the first stop of its route
+                List<Integer> merged = new ArrayList<>(ri.seq);
+                if (merged.get(merged.size() - 1) != saving.i()) {
+                    Collections.reverse(merged);
+                }
+                List<Integer> tail = new ArrayList<>(rj.seq);
+                if (tail.get(0) != saving.j()) {
+                    Collections.reverse(tail);
+                }
+                merged.addAll(tail);
+
+                Assignment assignment = evaluate(merged);
+                if (assignment.feasible() && assignment.cost() < ri.cost() + rj.cost() - EPSILON) {
+                    ri.seq = merged;
+                    ri.assignment = assignment;
+                    for (int stop : tail) {
+                        routeOf[stop] = ri;
+                    }
+                    rj.seq = new ArrayList<>();
+                    routes.remove(rj);
+                }
+            }
+        }
+
+        private boolean isEndpoint(WorkingRoute route, int stop) {
+            return route.seq.get(0) == stop || route.seq.get(route.seq.size() - 1) == stop;
+        }
+
+        /**
+         * Moves single dispatches next to one of their nearest neighbours (in any route) when that lowers total cost.
+         */
+        private boolean relocatePass() {
+            boolean improved = false;
+            for (int u = 0; u < n; u++) {
+                WorkingRoute from = routeOf[u];
+                if (from == null) continue;
+
+                List<Integer> fromWithout = new ArrayList<>(from.seq);
+                fromWithout.remove(Integer.valueOf(u));
+                Assignment fromWithoutAssignment = fromWithout.isEmpty() ? null : evaluate(fromWithout);
+                if (fromWithoutAssignment != null && !fromWithoutAssignment.feasible()) continue;
+                double fromWithoutCost = fromWithoutAssignment == null ? 0 : fromWithoutAssignment.cost();
+
+                double bestDelta = -EPSILON;
+                WorkingRoute bestTarget = null;
+                List<Integer> bestSeq = null;
+                Assignment bestAssignment = null;
+
+                for (int neighbour : neighbours[u]) {
+                    WorkingRoute target = routeOf[neighbour];
+                    if (target == null) continue;
+
+                    List<Integer> base = target == from ? fromWithout : target.seq;
+                    int at = base.indexOf(neighbour);
+                    for (int position : new int[]{at, at + 1}) {
+                        List<Integer> candidate = new ArrayList<>(base);
+                        candidate.add(position, u);
+                        Assignment assignment = evaluate(candidate);
+                        if (!assignment.feasible()) continue;
+
+                        double delta = target == from
+                                ? assignment.cost() - from.cost()
+                                : fromWithoutCost + assignment.cost() - from.cost() - target.cost();
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestTarget = target;
+                            bestSeq = candidate;
+                            bestAssignment = assignment;
+                        }
+                    }
+                }
+
+                if (bestTarget != null) {
+                    if (bestTarget != from) {
+                        from.seq = fromWithout;
+                        from.assignment = fromWithoutAssignment == null ? Assignment.INFEASIBLE : fromWithoutAssignment;
+                    }
+                    bestTarget.seq = bestSeq;
+                    bestTarget.assignment = bestAssignment;
+                    routeOf[u] = bestTarget;
+                    improved = true;
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Swaps pairs of dispatches between routes when that lowers total cost.
+         */
+        private boolean exchangePass() {
+            boolean improved = false;
+            for (int u = 0; u < n; u++) {
+                WorkingRoute a = routeOf[u];
+                if (a == null) continue;
+
+                for (int v : neighbours[u]) {
+                    WorkingRoute b = routeOf[v];
+                    if (b == null || b == a) continue;
+
+                    List<Integer> newA = new ArrayList<>(a.seq);
+                    newA.set(newA.indexOf(u), v);
+                    List<Integer> newB = new ArrayList<>(b.seq);
+                    newB.set(newB.indexOf(v), u);
+
+                    Assignment assignmentA = evaluate(newA);
+                    if (!assignmentA.feasible()) continue;
+                    Assignment assignmentB = evaluate(newB);
+                    if (!assignmentB.feasible()) continue;
+
+                    if (assignmentA.cost() + assignmentB.cost() < a.cost() + b.cost() - EPSILON) {
+                        a.seq = newA;
+                        a.assignment = assignmentA;
+                        b.seq = newB;
+                        b.assignment = assignmentB;
+                        routeOf[u] = b;
+                        routeOf[v] = a;
+                        improved = true;
+                        break; // u has moved, continue with the next dispatch
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Picks the cheapest vehicle that can fly the sequence, checking capacity, cooling/heating,
+         * availability, maxMoves and the pro-rata maxCost of every dispatch.
+         */
+        private Assignment evaluate(List<Integer> seq) {
+            double[] costs = costPerVehicle(seq);
+            Assignment best = Assignment.INFEASIBLE;
+            for (int v = 0; v < m; v++) {
+                if (costs[v] < best.cost()) {
+                    best = new Assignment(v, costs[v]);
+                }
+            }
+            return best;
+        }
+
+        private List<Vehicle> feasibleVehicles(List<Integer> seq) {
+            double[] costs = costPerVehicle(seq);
+            return IntStream.range(0, m)
+                    .filter(v -> costs[v] < Double.POSITIVE_INFINITY)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(v -> costs[v]))
+                    .map(fleet::get)
+                    .toList();
+        }
+
+        /**
+         * Estimated cost of the sequence for every vehicle, infinity where the vehicle can't fly it.
+         */
+        private double[] costPerVehicle(List<Integer> seq) {
+            double totalCapacity = 0;
+            double interior = 0;
+            double minMaxCost = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < seq.size(); k++) {
+                MedDispatchRec.Requirements requirements = dispatches.get(seq.get(k)).requirements();
+                totalCapacity += requirements.capacity();
+                if (requirements.maxCost() != null) {
+                    minMaxCost = Math.min(minMaxCost, requirements.maxCost());
+                }
+                if (k > 0) {
+                    interior += dist[seq.get(k - 1)][seq.get(k)];
+                }
+            }
+            int first = seq.get(0);
+            int last = seq.get(seq.size() - 1);
+
+            double[] costs = new double[m];
+            for (int v = 0; v < m; v++) {
+                costs[v] = Double.POSITIVE_INFINITY;
+                Drone.Capability capability = fleet.get(v).drone().capability();
+                if (capability.capacity() < totalCapacity || !eligibleForAll(seq, v)) continue;
+
+                double distance = baseDist[v][first] + interior + baseDist[v][last];
+                int moves = (int) Math.ceil(distance / MOVE_DISTANCE) + seq.size(); // one hover per delivery
+                if (moves > capability.maxMoves()) continue;
+
+                double cost = capability.costInitial() + capability.costFinal() + moves * capability.costPerMove();
+                if (cost / seq.size() > minMaxCost) continue;
+
+                costs[v] = cost;
+            }
+            return costs;
+        }
+
+        private boolean eligibleForAll(List<Integer> seq, int vehicle) {
+            for (int stop : seq) {
+                if (!eligible[stop][vehicle]) return false;
+            }
+            return true;
+        }
+
+        private double totalCost() {
+            return routes.stream().mapToDouble(WorkingRoute::cost).sum();
+        }
+    }
+}
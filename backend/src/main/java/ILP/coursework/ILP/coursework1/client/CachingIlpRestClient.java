@@ -0,0 +1,233 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the ILP reference data from an in-memory snapshot instead of calling upstream on every lookup.
+ * A snapshot older than the TTL is still served while a background refresh fetches a new one
+ * (stale-while-revalidate), and is swapped in atomically, so a caller holding a snapshot always sees one version.
+ * If upstream is failing the last good snapshot keeps being served; past max-stale a caller waits for a refresh
+ * attempt, but still gets the stale snapshot if that fails too. Callers that queued up behind an attempt take its
+ * outcome rather than each trying upstream again in turn. With the cache disabled every lookup goes upstream,
+ * but a failed one still falls back to the last good snapshot. While upstream is failing, {@link #staleness()}
+ * says how old the data being served is.
+ */
+@Component
+@Primary
+public class CachingIlpRestClient implements IlpRestClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingIlpRestClient.class);
+
+    private final IlpRestClient upstream;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final Clock clock;
+    private final ExecutorService refresher;
+
+    private final AtomicReference<ReferenceDataSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // refresh attempts finished so far, successful or not
+    private final AtomicLong refreshAttempts = new AtomicLong();
+    // when the first refresh after the last good one failed, null while upstream is healthy
+    private final AtomicReference<Instant> failingSince = new AtomicReference<>();
+    private final Object refreshLock = new Object();
+
+    @Autowired
+    public CachingIlpRestClient(@Qualifier("upstream") IlpRestClient upstream,
+                                @Value("${ilp.cache.enabled:true}") boolean enabled,
+                                @Value("${ilp.cache.ttl:PT5M}") Duration ttl,
+                                @Value("${ilp.cache.max-stale:PT1H}") Duration maxStale) {
+        this(upstream, enabled, ttl, maxStale, Clock.systemUTC(), Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ilp-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    CachingIlpRestClient(IlpRestClient upstream, boolean enabled, Duration ttl, Duration maxStale,
+                         Clock clock, ExecutorService refresher) {
+        this.upstream = upstream;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.maxStale = maxStale;
+        this.clock = clock;
+        this.refresher = refresher;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public ReferenceDataSnapshot snapshot() {
+        if (!enabled) {
+            try {
+                return refresh();
+            } catch (RuntimeException e) {
+                ReferenceDataSnapshot last = current.get();
+                if (last == null) {
+                    throw e;
+                }
+                logger.warn("ILP fetch failed, serving reference data from {}: {}", last.fetchedAt(), e.toString());
+                return last;
+            }
+        }
+
+        ReferenceDataSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return loadFirst();
+        }
+
+        Duration age = Duration.between(snapshot.fetchedAt(), clock.instant());
+        if (age.compareTo(maxStale) > 0) {
+            return refreshOrServeStale(snapshot);
+        }
+        if (age.compareTo(ttl) > 0) {
+            refreshInBackground();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Age of the snapshot being served while upstream is failing, empty while it is healthy.
+     */
+    public Optional<Duration> staleness() {
+        ReferenceDataSnapshot snapshot = current.get();
+        if (failingSince.get() == null || snapshot == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.between(snapshot.fetchedAt(), clock.instant()));
+    }
+
+    /**
+     * The snapshot currently held, without triggering a fetch.
+     */
+    public Optional<ReferenceDataSnapshot> peek() {
+        return Optional.ofNullable(current.get());
+    }
+
+    @Override
+    public long referenceDataVersion() {
+        return snapshot().version();
+    }
+
+    @Override
+    public Drone[] getDrones() {
+        return snapshot().drones().toArray(Drone[]::new);
+    }
+
+    @Override
+    public ServicePoint[] getServicePoints() {
+        return snapshot().servicePoints().toArray(ServicePoint[]::new);
+    }
+
+    @Override
+    public DroneForServicePoint[] getDronesForServicePoints() {
+        return snapshot().dronesForServicePoints().toArray(DroneForServicePoint[]::new);
+    }
+
+    @Override
+    public RestrictedArea[] getRestrictedAreas() {
+        return snapshot().restrictedAreas().toArray(RestrictedArea[]::new);
+    }
+
+    // nothing to fall back on yet, so upstream failures go to the caller
+    private ReferenceDataSnapshot loadFirst() {
+        synchronized (refreshLock) {
+            ReferenceDataSnapshot snapshot = current.get();
+            return snapshot != null ? snapshot : refresh();
+        }
+    }
+
+    private ReferenceDataSnapshot refreshOrServeStale(ReferenceDataSnapshot stale) {
+        long attemptsBefore = refreshAttempts.get();
+        synchronized (refreshLock) {
+            ReferenceDataSnapshot latest = current.get();
+            if (latest != stale) {
+                return latest; // someone else refreshed while we waited
+            }
+            if (refreshAttempts.get() != attemptsBefore) {
+                return stale; // someone else tried while we waited and upstream failed, don't try again straight away
+            }
+            try {
+                return refresh();
+            } catch (RuntimeException e) {
+                logger.warn("ILP refresh failed, serving reference data from {}", stale.fetchedAt(), e);
+                return stale;
+            }
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                synchronized (refreshLock) {
+                    refresh();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Background ILP refresh failed, keeping the current snapshot", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Fetches a new snapshot and swaps it in. The version only moves on when the content changed, the zones
+     * version only when the restricted areas did, and an unchanged fetch keeps the old lists so downstream
+     * caches can tell by identity.
+     */
+    private ReferenceDataSnapshot refresh() {
+        ReferenceDataSnapshot fetched;
+        try {
+            fetched = upstream.snapshot();
+        } catch (RuntimeException e) {
+            failingSince.compareAndSet(null, clock.instant());
+            throw e;
+        } finally {
+            refreshAttempts.incrementAndGet();
+        }
+        failingSince.set(null);
+        ReferenceDataSnapshot previous = current.get();
+        Instant now = clock.instant();
+
+        ReferenceDataSnapshot next;
+        if (previous == null) {
+            next = fetched.withVersion(1, 1, now);
+        } else if (previous.sameContentAs(fetched)) {
+            next = previous.withVersion(previous.version(), previous.zonesVersion(), now);
+        } else {
+            long zonesVersion = previous.sameZonesAs(fetched) ? previous.zonesVersion() : previous.zonesVersion() + 1;
+            next = fetched.withVersion(previous.version() + 1, zonesVersion, now);
+            logger.info("ILP reference data changed, now at version {} (zones version {})", next.version(), zonesVersion);
+        }
+        current.set(next);
+        return next;
+    }
+}
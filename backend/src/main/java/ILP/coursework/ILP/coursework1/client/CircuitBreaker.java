@@ -0,0 +1,186 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker over the last {@code windowSize} calls to one endpoint. Once at least {@code minimumCalls} are in
+ * the window and the failure rate reaches the threshold it opens, and calls fail straight away with
+ * {@link CircuitOpenException} rather than queueing up behind a sick upstream. After {@code openDuration} a single
+ * probe call is let through (half-open): if it succeeds the circuit closes with an empty window, if not it opens again.
+ * A call abandoned by its caller (interrupted or cancelled) says nothing about upstream and isn't counted either way.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        public Settings {
+            if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("Need 1 <= minimumCalls <= windowSize, got " + minimumCalls + " and " + windowSize);
+            }
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("Failure rate threshold must be in (0, 1], got " + failureRateThreshold);
+            }
+        }
+    }
+
+    /**
+     * State at one point in time, for health reporting.
+     */
+    public record Status(State state, int calls, double failureRate, Duration retryAfter) {}
+
+    // what a call was let through under; results from an earlier generation (before a state change) are ignored
+    private record Permit(long generation) {}
+
+    private final String name;
+    private final Settings settings;
+    private final Clock clock;
+
+    // guarded by this
+    private final boolean[] failed;
+    private int next;
+    private int calls;
+    private int failures;
+    private State state = State.CLOSED;
+    private long generation;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, Settings settings, Clock clock) {
+        this.name = name;
+        this.settings = settings;
+        this.clock = clock;
+        this.failed = new boolean[settings.windowSize()];
+    }
+
+    /**
+     * Runs the call if the circuit lets it through, recording whether it threw.
+     * @throws CircuitOpenException without running the call while the circuit is open or a probe is in flight
+     */
+    public <T> T call(Supplier<T> call) {
+        Permit permit = acquire();
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            if (isAbandoned(e)) {
+                release(permit);
+            } else {
+                onResult(permit, false);
+            }
+            throw e;
+        }
+        onResult(permit, true);
+        return result;
+    }
+
+    /**
+     * Whether a call failed because its caller gave up on it rather than because of upstream:
+     * the thread was interrupted (HTTP clients wrap that in an IOException) or the call was cancelled.
+     */
+    static boolean isAbandoned(Throwable failure) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                    || cause instanceof ClosedByInterruptException || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized Status status() {
+        return new Status(state, calls, failureRate(), retryAfter());
+    }
+
+    private synchronized Permit acquire() {
+        if (state == State.OPEN) {
+            if (retryAfter().isPositive()) {
+                throw new CircuitOpenException(name, retryAfter());
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                throw new CircuitOpenException(name, Duration.ZERO);
+            }
+            probeInFlight = true;
+        }
+        return new Permit(generation);
+    }
+
+    // an abandoned probe frees the way for the next caller to probe
+    private synchronized void release(Permit permit) {
+        if (permit.generation() == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    private synchronized void onResult(Permit permit, boolean success) {
+        if (permit.generation() != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (success) {
+                logger.info("Circuit for ILP {} closed, the probe call succeeded", name);
+            } else {
+                logger.warn("Circuit for ILP {} opened again for {} ms, the probe call failed", name,
+                        settings.openDuration().toMillis());
+            }
+            transition(success ? State.CLOSED : State.OPEN);
+            return;
+        }
+        if (failed[next]) failures--;
+        if (calls < failed.length) calls++;
+        failed[next] = !success;
+        if (!success) failures++;
+        next = (next + 1) % failed.length;
+
+        if (calls >= settings.minimumCalls() && failureRate() >= settings.failureRateThreshold()) {
+            logger.warn("Circuit for ILP {} opened for {} ms, {} of the last {} calls failed", name,
+                    settings.openDuration().toMillis(), failures, calls);
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State to) {
+        state = to;
+        generation++;
+        probeInFlight = false;
+        if (to == State.OPEN) {
+            openedAt = clock.instant();
+        }
+        if (to == State.CLOSED) {
+            Arrays.fill(failed, false);
+            next = 0;
+            calls = 0;
+            failures = 0;
+        }
+    }
+
+    private double failureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    private Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(clock.instant(), openedAt.plus(settings.openDuration()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
@@ -0,0 +1,33 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import java.io.Serial;
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling an ILP endpoint whose circuit is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String endpoint;
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String endpoint, Duration retryAfter) {
+        super("Circuit for ILP " + endpoint + " is open, retry in " + retryAfter.toMillis() + " ms");
+        this.endpoint = endpoint;
+        this.retryAfter = retryAfter;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    /**
+     * How long until a probe call will be let through again.
+     */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,68 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Requests over one shared JDK HttpClient (pooled keep-alive connections, HTTP/2 where upstream offers it),
+ * with a response timeout per ILP endpoint. Endpoints without their own timeout get the default.
+ */
+public class EndpointTimeoutRequestFactory implements ClientHttpRequestFactory {
+
+    private final JdkClientHttpRequestFactory defaultFactory;
+    private final Map<String, JdkClientHttpRequestFactory> factoriesByPath = new LinkedHashMap<>();
+
+    /**
+     * @param timeouts response timeout by endpoint path, matched against the end of the request path
+     */
+    public EndpointTimeoutRequestFactory(HttpClient httpClient, Duration defaultTimeout, Map<String, Duration> timeouts) {
+        this.defaultFactory = factory(httpClient, defaultTimeout);
+        timeouts.forEach((path, timeout) -> factoriesByPath.put(path, factory(httpClient, timeout)));
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        String path = uri.getPath();
+        for (Map.Entry<String, JdkClientHttpRequestFactory> entry : factoriesByPath.entrySet()) {
+            if (path != null && path.endsWith(entry.getKey())) {
+                return entry.getValue().createRequest(uri, httpMethod);
+            }
+        }
+        return defaultFactory.createRequest(uri, httpMethod);
+    }
+
+    /**
+     * Parses "drones=PT3S, restricted-areas=PT10S" into timeouts by path ("/drones", "/restricted-areas").
+     * @throws IllegalArgumentException for an entry that isn't name=ISO-8601 duration
+     */
+    public static Map<String, Duration> parseTimeouts(String spec) {
+        Map<String, Duration> timeouts = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return timeouts;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("Expected endpoint=duration, got '" + entry.trim() + "'");
+            }
+            String name = parts[0].trim();
+            timeouts.put(name.startsWith("/") ? name : "/" + name, Duration.parse(parts[1].trim()));
+        }
+        return timeouts;
+    }
+
+    private static JdkClientHttpRequestFactory factory(HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return factory;
+    }
+}
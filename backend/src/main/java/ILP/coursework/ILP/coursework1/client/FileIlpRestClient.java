@@ -0,0 +1,93 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves the ILP reference data from JSON files on disk instead of the ILP service, for running without network
+ * access and for reproducible runs against a fixed dataset. Active under the "offline" profile, in place of
+ * {@link IlpRestClientImpl} (the caching client still sits in front).
+ * The directory holds one file per endpoint, as written by {@link IlpSnapshotExporter}. Each file is
+ * memory-mapped and parsed once at startup, so the data never changes while the app runs.
+ */
+@Component
+@Qualifier("upstream")
+@Profile("offline")
+public class FileIlpRestClient implements IlpRestClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileIlpRestClient.class);
+
+    static final String DRONES_FILE = "drones.json";
+    static final String SERVICE_POINTS_FILE = "service-points.json";
+    static final String DRONES_FOR_SERVICE_POINTS_FILE = "drones-for-service-points.json";
+    static final String RESTRICTED_AREAS_FILE = "restricted-areas.json";
+
+    private final ReferenceDataSnapshot snapshot;
+
+    public FileIlpRestClient(@Value("${ilp.offline.dir:ilp-snapshot}") Path directory) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.snapshot = ReferenceDataSnapshot.of(
+                read(objectMapper, directory.resolve(DRONES_FILE), Drone[].class),
+                read(objectMapper, directory.resolve(SERVICE_POINTS_FILE), ServicePoint[].class),
+                read(objectMapper, directory.resolve(DRONES_FOR_SERVICE_POINTS_FILE), DroneForServicePoint[].class),
+                read(objectMapper, directory.resolve(RESTRICTED_AREAS_FILE), RestrictedArea[].class));
+        logger.info("Loaded offline ILP data from {}: {} drones, {} service points, {} restricted areas",
+                directory.toAbsolutePath(), snapshot.drones().size(), snapshot.servicePoints().size(),
+                snapshot.restrictedAreas().size());
+    }
+
+    private static <T> T read(ObjectMapper objectMapper, Path file, Class<T> type) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (InputStream in = new ByteBufferBackedInputStream(buffer)) {
+                return objectMapper.readValue(in, type);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read offline ILP data from " + file, e);
+        }
+    }
+
+    @Override
+    public ReferenceDataSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public Drone[] getDrones() {
+        return snapshot.drones().toArray(Drone[]::new);
+    }
+
+    @Override
+    public ServicePoint[] getServicePoints() {
+        return snapshot.servicePoints().toArray(ServicePoint[]::new);
+    }
+
+    @Override
+    public DroneForServicePoint[] getDronesForServicePoints() {
+        return snapshot.dronesForServicePoints().toArray(DroneForServicePoint[]::new);
+    }
+
+    @Override
+    public RestrictedArea[] getRestrictedAreas() {
+        return snapshot.restrictedAreas().toArray(RestrictedArea[]::new);
+    }
+}
@@ -0,0 +1,53 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link CircuitBreaker} per ILP endpoint, all with the same settings.
+ */
+@Component
+public class IlpCircuitBreakers {
+
+    private final CircuitBreaker.Settings settings;
+    private final Clock clock;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IlpCircuitBreakers(@Value("${ilp.circuit.window-size:20}") int windowSize,
+                              @Value("${ilp.circuit.minimum-calls:5}") int minimumCalls,
+                              @Value("${ilp.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                              @Value("${ilp.circuit.open-duration:PT30S}") Duration openDuration) {
+        this(new CircuitBreaker.Settings(windowSize, minimumCalls, failureRateThreshold, openDuration), Clock.systemUTC());
+    }
+
+    public IlpCircuitBreakers(CircuitBreaker.Settings settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    public static IlpCircuitBreakers defaults() {
+        return new IlpCircuitBreakers(new CircuitBreaker.Settings(20, 5, 0.5, Duration.ofSeconds(30)), Clock.systemUTC());
+    }
+
+    public CircuitBreaker forEndpoint(String endpoint) {
+        return breakers.computeIfAbsent(endpoint, name -> new CircuitBreaker(name, settings, clock));
+    }
+
+    /**
+     * Status of every endpoint called so far, by endpoint.
+     */
+    public Map<String, CircuitBreaker.Status> statuses() {
+        Map<String, CircuitBreaker.Status> statuses = new TreeMap<>();
+        breakers.forEach((endpoint, breaker) -> statuses.put(endpoint, breaker.status()));
+        return statuses;
+    }
+}
@@ -0,0 +1,30 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import java.io.Serial;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A reference-data fetch that did not complete, with what went wrong for each endpoint that didn't answer.
+ */
+public class IlpFetchException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // a concrete serializable copy, Map.copyOf's result type isn't declared Serializable
+    private final LinkedHashMap<String, String> failures;
+
+    public IlpFetchException(Map<String, String> failures, Throwable cause) {
+        super("ILP fetch failed: " + failures, cause);
+        this.failures = new LinkedHashMap<>(failures);
+    }
+
+    /**
+     * Endpoint path to the reason it failed, was cancelled or timed out.
+     */
+    public Map<String, String> failures() {
+        return Collections.unmodifiableMap(failures);
+    }
+}
@@ -0,0 +1,52 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The "ilp" component of /actuator/health: the circuit state of each ILP endpoint called so far, and the reference
+ * data being served. DEGRADED while a circuit is not closed or the data is stale; that is ordered after UP
+ * (management.endpoint.health.status.order), so the service as a whole stays UP while it can still answer.
+ * Only reports what is known, it never calls upstream itself.
+ */
+@Component
+public class IlpHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "ILP service failing, serving stale reference data");
+
+    private final IlpCircuitBreakers circuitBreakers;
+    private final CachingIlpRestClient ilpClient;
+
+    public IlpHealthIndicator(IlpCircuitBreakers circuitBreakers, CachingIlpRestClient ilpClient) {
+        this.circuitBreakers = circuitBreakers;
+        this.ilpClient = ilpClient;
+    }
+
+    @Override
+    public Health health() {
+        boolean degraded = ilpClient.staleness().isPresent();
+        Map<String, Object> circuits = new LinkedHashMap<>();
+        for (Map.Entry<String, CircuitBreaker.Status> entry : circuitBreakers.statuses().entrySet()) {
+            CircuitBreaker.Status status = entry.getValue();
+            degraded |= status.state() != CircuitBreaker.State.CLOSED;
+            circuits.put(entry.getKey(), Map.of(
+                    "state", status.state(),
+                    "calls", status.calls(),
+                    "failureRate", Math.round(status.failureRate() * 100) / 100.0,
+                    "retryAfterMs", status.retryAfter().toMillis()));
+        }
+
+        Health.Builder health = degraded ? Health.status(DEGRADED) : Health.up();
+        health.withDetail("circuits", circuits);
+        ilpClient.peek().ifPresent(snapshot -> health
+                .withDetail("referenceDataVersion", snapshot.version())
+                .withDetail("referenceDataFetchedAt", snapshot.fetchedAt().toString()));
+        ilpClient.staleness().ifPresent(age -> health.withDetail("staleSeconds", age.toSeconds()));
+        return health.build();
+    }
+}
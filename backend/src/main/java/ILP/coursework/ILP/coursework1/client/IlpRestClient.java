@@ -10,4 +10,18 @@ public interface IlpRestClient {
     ServicePoint[] getServicePoints();
     DroneForServicePoint[] getDronesForServicePoints();
     RestrictedArea[] getRestrictedAreas();
-}
\ No newline at end of file
+
+    /**
+     * All four datasets in one consistent snapshot. The default fetches each of them.
+     */
+    default ReferenceDataSnapshot snapshot() {
+        return ReferenceDataSnapshot.of(getDrones(), getServicePoints(), getDronesForServicePoints(), getRestrictedAreas());
+    }
+
+    /**
+     * Changes whenever any of the reference datasets change, so results computed from them can be keyed on it.
+     */
+    default long referenceDataVersion() {
+        return snapshot().version();
+    }
+}
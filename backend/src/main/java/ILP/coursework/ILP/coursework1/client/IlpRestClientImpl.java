@@ -4,46 +4,279 @@ import ILP.coursework.ILP.coursework1.dto.Drone;
 import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
 import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
 import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import ILP.coursework.ILP.coursework1.jfr.IlpFetchEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Talks to the ILP REST service directly (except under the "offline" profile, see {@link FileIlpRestClient}).
+ * Everything else gets the caching client in front of this one.
+ * Each endpoint is fetched conditionally: the ETag / Last-Modified of the last response is sent back, and when
+ * upstream sends no validators the body hash is compared instead, so unchanged data is never deserialized twice.
+ * Every call is timed as ilp.upstream.request, tagged with the endpoint and how it went, and recorded as an
+ * {@link IlpFetchEvent} while a flight recording is running.
+ * Each endpoint sits behind its own {@link CircuitBreaker}: while upstream keeps failing, calls fail straight away
+ * instead of tying up threads until they time out.
+ */
 @Component
+@Qualifier("upstream")
+@Profile("!offline")
 public class IlpRestClientImpl implements IlpRestClient {
 
+    private static final Logger logger = LoggerFactory.getLogger(IlpRestClientImpl.class);
+
     private final RestTemplate restTemplate;
+    private final String baseUrl;
+    private final Duration fetchTimeout;
+    private final MeterRegistry meterRegistry;
+    private final IlpCircuitBreakers circuitBreakers;
+    // same settings RestTemplate's own Jackson converter uses
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
     private static final String DEFAULT_BASE_URL = "https://ilp-rest-2025-bvh6e9hschfagrgy.ukwest-01.azurewebsites.net";
 
-    public IlpRestClientImpl(RestTemplate restTemplate) {
+    private final ConditionalResource<Drone[]> drones = new ConditionalResource<>("/drones", Drone[].class);
+    private final ConditionalResource<ServicePoint[]> servicePoints = new ConditionalResource<>("/service-points", ServicePoint[].class);
+    private final ConditionalResource<DroneForServicePoint[]> dronesForServicePoints =
+            new ConditionalResource<>("/drones-for-service-points", DroneForServicePoint[].class);
+    private final ConditionalResource<RestrictedArea[]> restrictedAreas = new ConditionalResource<>("/restricted-areas", RestrictedArea[].class);
+
+    public IlpRestClientImpl(RestTemplate restTemplate, @Value("${ilp.endpoint:}") String endpoint,
+                             @Value("${ilp.fetch.timeout:PT10S}") Duration fetchTimeout, MeterRegistry meterRegistry,
+                             IlpCircuitBreakers circuitBreakers) {
         this.restTemplate = restTemplate;  //Plain RestTemplate, no rootUri
+        this.baseUrl = getBaseUrl(endpoint);
+        this.fetchTimeout = fetchTimeout;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakers = circuitBreakers;
     }
 
-    //Read environment variable fresh on every call
-    private String getBaseUrl() {
-        String url = System.getenv("ILP_ENDPOINT");
-        return (url != null && !url.isEmpty()) ? url : DEFAULT_BASE_URL;
+    // ilp.endpoint (the ILP_ENDPOINT env var binds to it too) is read once at startup, it doesn't change while the app runs
+    private static String getBaseUrl(String endpoint) {
+        String url = (endpoint != null && !endpoint.isEmpty()) ? endpoint : DEFAULT_BASE_URL;
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 
     @Override
     public Drone[] getDrones() {
-        String url = getBaseUrl() + "/drones";  //Fresh URL each time
-        return restTemplate.getForObject(url, Drone[].class);
+        return drones.fetch();
     }
 
     @Override
     public ServicePoint[] getServicePoints() {
-        String url = getBaseUrl() + "/service-points";
-        return restTemplate.getForObject(url, ServicePoint[].class);
+        return servicePoints.fetch();
     }
 
     @Override
     public DroneForServicePoint[] getDronesForServicePoints() {
-        String url = getBaseUrl() + "/drones-for-service-points";
-        return restTemplate.getForObject(url, DroneForServicePoint[].class);
+        return dronesForServicePoints.fetch();
     }
 
     @Override
     public RestrictedArea[] getRestrictedAreas() {
-        String url = getBaseUrl() + "/restricted-areas";
-        return restTemplate.getForObject(url, RestrictedArea[].class);
+        return restrictedAreas.fetch();
+    }
+
+    /**
+     * Fetches the four datasets at the same time, one virtual thread each, under one overall timeout.
+     * They succeed or fail as a group: the first failure cancels the rest, and the exception says what happened
+     * to every endpoint that didn't answer.
+     * (Java 21's StructuredTaskScope is still a preview API, so this does the same with a plain executor.)
+     */
+    @Override
+    public ReferenceDataSnapshot snapshot() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Object>, String> endpoints = new LinkedHashMap<>();
+        Map<String, Object> results = new ConcurrentHashMap<>();
+        try {
+            submit(completion, endpoints, results, "/drones", this::getDrones);
+            submit(completion, endpoints, results, "/service-points", this::getServicePoints);
+            submit(completion, endpoints, results, "/drones-for-service-points", this::getDronesForServicePoints);
+            submit(completion, endpoints, results, "/restricted-areas", this::getRestrictedAreas);
+
+            long deadline = System.nanoTime() + fetchTimeout.toNanos();
+            for (int done = 0; done < endpoints.size(); done++) {
+                Future<Object> finished = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (finished == null) {
+                    throw failure(endpoints, results, null, "timed out after " + fetchTimeout.toMillis() + " ms");
+                }
+                try {
+                    finished.get();
+                } catch (ExecutionException e) {
+                    String endpoint = endpoints.get(finished);
+                    logger.warn("ILP endpoint {} failed: {}", endpoint, e.getCause().toString());
+                    throw failure(endpoints, results, e.getCause(), "cancelled, " + endpoint + " failed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure(endpoints, results, e, "interrupted");
+        } finally {
+            // don't wait for cancelled calls, they finish on their own virtual threads
+            executor.shutdownNow();
+        }
+
+        return ReferenceDataSnapshot.of((Drone[]) results.get("/drones"), (ServicePoint[]) results.get("/service-points"),
+                (DroneForServicePoint[]) results.get("/drones-for-service-points"),
+                (RestrictedArea[]) results.get("/restricted-areas"));
+    }
+
+    private static void submit(ExecutorCompletionService<Object> completion, Map<Future<Object>, String> endpoints,
+                               Map<String, Object> results, String endpoint, Supplier<Object> fetch) {
+        endpoints.put(completion.submit(() -> {
+            Object result = fetch.get();
+            if (result == null) {
+                throw new IllegalStateException("empty response");
+            }
+            results.put(endpoint, result);
+            return result;
+        }), endpoint);
+    }
+
+    /**
+     * Builds the group failure: the endpoint that failed gets its own cause, the others that hadn't finished
+     * get the reason they were abandoned.
+     */
+    private static IlpFetchException failure(Map<Future<Object>, String> endpoints, Map<String, Object> results,
+                                             Throwable cause, String unfinishedReason) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Map.Entry<Future<Object>, String> entry : endpoints.entrySet()) {
+            String endpoint = entry.getValue();
+            if (results.containsKey(endpoint)) continue;
+            Future<Object> future = entry.getKey();
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failures.put(endpoint, e.getCause().toString());
+                    continue;
+                } catch (InterruptedException | CancellationException ignored) {
+                    // fall through to the generic reason
+                }
+            }
+            failures.put(endpoint, unfinishedReason);
+            future.cancel(true);
+        }
+        return new IlpFetchException(failures, cause);
+    }
+
+    // what came back last time for one endpoint: validators to send back, the body hash, and the parsed value
+    private record CachedBody<T>(String etag, String lastModified, byte[] sha256, T value) {}
+
+    // a fetched value, the outcome tag it is timed under, and what came over the wire
+    private record Fetched<T>(T value, String outcome, int statusCode, long bodyBytes) {}
+
+    private final class ConditionalResource<T> {
+        private final String path;
+        private final Class<T> type;
+        private volatile CachedBody<T> cached;
+
+        ConditionalResource(String path, Class<T> type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        T fetch() {
+            IlpFetchEvent event = new IlpFetchEvent();
+            event.begin();
+            long start = System.nanoTime();
+            Fetched<T> fetched = null;
+            String outcome = "error";
+            try {
+                fetched = circuitBreakers.forEndpoint(path).call(this::fetchConditionally);
+                outcome = fetched.outcome();
+                return fetched.value();
+            } catch (CircuitOpenException e) {
+                outcome = "circuit_open";
+                throw e;
+            } catch (RuntimeException e) {
+                // cancelled because another endpoint of the same snapshot failed, not a failure of this one
+                if (CircuitBreaker.isAbandoned(e)) {
+                    outcome = "cancelled";
+                }
+                throw e;
+            } finally {
+                Timer.builder("ilp.upstream.request").tag("endpoint", path).tag("outcome", outcome)
+                        .description("Calls to the ILP REST service")
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.endpoint = path;
+                    event.outcome = outcome;
+                    event.statusCode = fetched != null ? fetched.statusCode() : 0;
+                    event.bodyBytes = fetched != null ? fetched.bodyBytes() : 0;
+                    event.commit();
+                }
+            }
+        }
+
+        private Fetched<T> fetchConditionally() {
+            CachedBody<T> previous = cached;
+            HttpHeaders headers = new HttpHeaders();
+            if (previous != null && previous.etag() != null) {
+                headers.setIfNoneMatch(previous.etag());
+            }
+            if (previous != null && previous.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+            }
+
+            ResponseEntity<byte[]> response = restTemplate.exchange(baseUrl + path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            if (previous != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                logger.debug("ILP {} not modified", path);
+                return new Fetched<>(previous.value(), "not_modified", response.getStatusCode().value(), 0);
+            }
+            byte[] body = response.getBody();
+            if (body == null) {
+                return new Fetched<>(null, "empty", response.getStatusCode().value(), 0);
+            }
+
+            String etag = response.getHeaders().getETag();
+            String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            byte[] hash = sha256(body);
+            if (previous != null && Arrays.equals(previous.sha256(), hash)) {
+                logger.debug("ILP {} unchanged by content hash", path);
+                cached = new CachedBody<>(etag, lastModified, hash, previous.value());
+                return new Fetched<>(previous.value(), "unchanged", response.getStatusCode().value(), body.length);
+            }
+
+            T value;
+            try {
+                value = objectMapper.readValue(body, type);
+            } catch (IOException e) {
+                throw new RestClientException("Could not read ILP " + path, e);
+            }
+            cached = new CachedBody<>(etag, lastModified, hash, value);
+            return new Fetched<>(value, "ok", response.getStatusCode().value(), body.length);
+        }
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
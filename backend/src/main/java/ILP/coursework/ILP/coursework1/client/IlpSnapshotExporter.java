@@ -0,0 +1,68 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the current upstream ILP data into the directory format {@link FileIlpRestClient} reads.
+ * Only runs when ilp.export.dir is set, e.g.
+ * {@code mvn spring-boot:run -Dspring-boot.run.arguments="--ilp.export.dir=ilp-snapshot --spring.main.web-application-type=none"}
+ * (without a web server the app exits once the export is written).
+ */
+@Component
+@ConditionalOnProperty(name = "ilp.export.dir")
+public class IlpSnapshotExporter implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IlpSnapshotExporter.class);
+
+    private final IlpRestClient upstream;
+    private final Path directory;
+
+    public IlpSnapshotExporter(@Qualifier("upstream") IlpRestClient upstream, @Value("${ilp.export.dir}") Path directory) {
+        this.upstream = upstream;
+        this.directory = directory;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        export(upstream.snapshot(), directory);
+        logger.info("Exported ILP data to {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Writes one file per endpoint, each written to a temp file first so a reader never sees half a file.
+     */
+    public static void export(ReferenceDataSnapshot snapshot, Path directory) throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ObjectWriter writer = objectMapper.writerWithDefaultPrettyPrinter();
+        Files.createDirectories(directory);
+        write(writer, directory.resolve(FileIlpRestClient.DRONES_FILE), snapshot.drones());
+        write(writer, directory.resolve(FileIlpRestClient.SERVICE_POINTS_FILE), snapshot.servicePoints());
+        write(writer, directory.resolve(FileIlpRestClient.DRONES_FOR_SERVICE_POINTS_FILE), snapshot.dronesForServicePoints());
+        write(writer, directory.resolve(FileIlpRestClient.RESTRICTED_AREAS_FILE), snapshot.restrictedAreas());
+    }
+
+    private static void write(ObjectWriter writer, Path file, Object value) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            writer.writeValue(temp.toFile(), value);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
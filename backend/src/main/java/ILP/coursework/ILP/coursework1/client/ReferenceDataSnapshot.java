@@ -0,0 +1,100 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * All four ILP datasets as fetched together, so everything read from one snapshot is consistent.
+ * The lists are unmodifiable; version only changes when the content does, and zonesVersion only when the
+ * restricted areas do, so caches built from the no-fly zones alone can outlive fleet changes.
+ * Lookup structures derived from the lists (the planner's fleet index, say) are built on first use and kept in
+ * {@link Views}, which {@link #withVersion} carries over since the lists stay the same.
+ */
+public record ReferenceDataSnapshot(
+        long version,
+        long zonesVersion,
+        long contentHash,
+        Instant fetchedAt,
+        List<Drone> drones,
+        List<ServicePoint> servicePoints,
+        List<DroneForServicePoint> dronesForServicePoints,
+        List<RestrictedArea> restrictedAreas,
+        Views views
+) {
+    public ReferenceDataSnapshot {
+        drones = List.copyOf(drones);
+        servicePoints = List.copyOf(servicePoints);
+        dronesForServicePoints = List.copyOf(dronesForServicePoints);
+        restrictedAreas = List.copyOf(restrictedAreas);
+        views = views != null ? views : new Views();
+    }
+
+    /**
+     * Builds a snapshot from freshly fetched arrays, using content hashes as the versions.
+     */
+    public static ReferenceDataSnapshot of(Drone[] drones, ServicePoint[] servicePoints,
+                                           DroneForServicePoint[] dronesForServicePoints, RestrictedArea[] restrictedAreas) {
+        List<Drone> droneList = List.of(drones);
+        List<ServicePoint> servicePointList = List.of(servicePoints);
+        List<DroneForServicePoint> availabilityList = List.of(dronesForServicePoints);
+        List<RestrictedArea> restrictedAreaList = List.of(restrictedAreas);
+        long hash = Objects.hash(droneList, servicePointList, availabilityList, restrictedAreaList);
+        return new ReferenceDataSnapshot(hash, restrictedAreaList.hashCode(), hash, Instant.now(), droneList, servicePointList,
+                availabilityList, restrictedAreaList, null);
+    }
+
+    public boolean sameContentAs(ReferenceDataSnapshot other) {
+        return contentHash == other.contentHash
+                && drones.equals(other.drones)
+                && servicePoints.equals(other.servicePoints)
+                && dronesForServicePoints.equals(other.dronesForServicePoints)
+                && restrictedAreas.equals(other.restrictedAreas);
+    }
+
+    public boolean sameZonesAs(ReferenceDataSnapshot other) {
+        return restrictedAreas.equals(other.restrictedAreas);
+    }
+
+    public ReferenceDataSnapshot withVersion(long version, long zonesVersion, Instant fetchedAt) {
+        return new ReferenceDataSnapshot(version, zonesVersion, contentHash, fetchedAt, drones, servicePoints,
+                dronesForServicePoints, restrictedAreas, views);
+    }
+
+    /**
+     * The view of this snapshot's data of the given type, built with {@code build} the first time it is asked for.
+     */
+    public <T> T view(Class<T> type, Function<ReferenceDataSnapshot, T> build) {
+        return type.cast(views.byType.computeIfAbsent(type, t -> build.apply(this)));
+    }
+
+    /**
+     * Views built from one snapshot's lists. Not part of the data, so it doesn't take part in equality.
+     */
+    public static final class Views {
+        private final ConcurrentMap<Class<?>, Object> byType = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Views;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Views" + byType.keySet();
+        }
+    }
+}
@@ -1,14 +1,94 @@
 package ILP.coursework.ILP.coursework1.config;
 
+import ILP.coursework.ILP.coursework1.client.EndpointTimeoutRequestFactory;
+import ILP.coursework.ILP.coursework1.client.GzipInterceptor;
+import ILP.coursework.ILP.coursework1.client.UpstreamLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class AppConfig {
 
+    /**
+     * Transport for the ILP client: one JDK HttpClient keeping connections alive (HTTP/2 where upstream offers it),
+     * connect and per-endpoint response timeouts, a cap on concurrent upstream requests, and gzip.
+     * Built from Boot's builder so calls are also timed as http.client.requests.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry,
+                                     @Value("${ilp.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                     @Value("${ilp.http.read-timeout:PT5S}") Duration readTimeout,
+                                     @Value("${ilp.http.endpoint-timeouts:}") String endpointTimeouts,
+                                     @Value("${ilp.http.max-concurrent:8}") int maxConcurrent,
+                                     @Value("${ilp.http.acquire-timeout:PT2S}") Duration acquireTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        EndpointTimeoutRequestFactory requestFactory = new EndpointTimeoutRequestFactory(httpClient, readTimeout,
+                EndpointTimeoutRequestFactory.parseTimeouts(endpointTimeouts));
+        return builder
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(new UpstreamLimitInterceptor(maxConcurrent, acquireTimeout, meterRegistry),
+                        new GzipInterceptor())
+                .build();
+    }
+
+    /**
+     * Pool for CPU-bound planning work (A* searches for candidate drones), sized to the cores by default.
+     * Tasks are charged to the request that submitted them, see {@link RequestResources}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService planningExecutor(@Value("${ilp.planning.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ResourceAccountingExecutor(Executors.newFixedThreadPool(poolSize, namedDaemonThreads("planning-")));
+    }
+
+    /**
+     * Bounded worker pool for asynchronous planning jobs. When every worker is busy and the queue is full,
+     * new jobs are rejected rather than queued without limit.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService planningJobExecutor(@Value("${ilp.jobs.workers:2}") int workers,
+                                               @Value("${ilp.jobs.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedDaemonThreads("planning-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bounded worker pool for /calcDeliveryPathStream, kept apart from the job pool so open streams can't starve
+     * queued jobs or the other way round. A stream holds its worker until it is done, so the queue is short.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService deliveryPathStreamExecutor(@Value("${ilp.stream.workers:2}") int workers,
+                                                      @Value("${ilp.stream.queue-capacity:10}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedDaemonThreads("path-stream-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package ILP.coursework.ILP.coursework1.config;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Feeds {@link RequestResourceFilter}: notes how many dispatches a request carried, and with
+ * ilp.request-resources.headers=true reports the request's CPU time and allocation so far in response headers
+ * (written just before the body is serialized, so serialization itself is only in the metrics).
+ */
+@ControllerAdvice
+public class RequestResourceAdvice extends RequestBodyAdviceAdapter implements ResponseBodyAdvice<Object> {
+
+    public static final String CPU_HEADER = "X-Request-Cpu-Ms";
+    public static final String ALLOCATED_HEADER = "X-Request-Allocated-Bytes";
+
+    private final boolean headers;
+
+    public RequestResourceAdvice(@Value("${ilp.request-resources.headers:false}") boolean headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType instanceof ParameterizedType list && list.getRawType() == List.class
+                && list.getActualTypeArguments()[0] == MedDispatchRec.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        if (body instanceof List<?> list) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.setAttribute(RequestResourceFilter.DISPATCH_COUNT, list.size(), RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return body;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return headers;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(RequestResources.ATTRIBUTE) instanceof RequestResources resources) {
+            response.getHeaders().set(CPU_HEADER, String.format("%.3f", resources.cpuNanos() / 1_000_000.0));
+            response.getHeaders().set(ALLOCATED_HEADER, Long.toString(resources.allocatedBytes()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,82 @@
+package ILP.coursework.ILP.coursework1.config;
+
+import ILP.coursework.ILP.coursework1.Service.PlanningMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every request's CPU time and heap allocation as ilp.request.cpu and ilp.request.allocated,
+ * tagged with the endpoint pattern and the dispatch batch size (when the body was a list of dispatches).
+ * Streaming and other async requests are skipped, their work continues after this filter returns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "ilp.request-resources.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestResourceFilter extends OncePerRequestFilter {
+
+    /** Request attribute with the number of dispatches in the request body, set by {@link RequestResourceAdvice}. */
+    public static final String DISPATCH_COUNT = RequestResourceFilter.class.getName() + ".dispatches";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestResourceFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!RequestResources.isSupported()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestResources resources = RequestResources.start();
+        request.setAttribute(RequestResources.ATTRIBUTE, resources);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long allocated = resources.allocatedBytes();
+            long cpu = resources.cpuNanos();
+            resources.detach();
+            if (!request.isAsyncStarted()) {
+                record(request, allocated, cpu);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long allocated, long cpuNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : "UNKNOWN";
+        String batch = request.getAttribute(DISPATCH_COUNT) instanceof Integer count
+                ? PlanningMetrics.batchBucket(count) : "none";
+
+        DistributionSummary.builder("ilp.request.allocated")
+                .tag("method", request.getMethod()).tag("endpoint", endpoint).tag("batch", batch)
+                .baseUnit("bytes")
+                .description("Heap allocated per request, including planning work handed to other threads")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(allocated);
+        Timer.builder("ilp.request.cpu")
+                .tag("method", request.getMethod()).tag("endpoint", endpoint).tag("batch", batch)
+                .description("CPU time per request, including planning work handed to other threads")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+}
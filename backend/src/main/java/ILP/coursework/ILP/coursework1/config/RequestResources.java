@@ -0,0 +1,137 @@
+package ILP.coursework.ILP.coursework1.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CPU time and heap allocation of one HTTP request: the request thread, plus any tasks it handed to the
+ * planning executor (see {@link ResourceAccountingExecutor}). Read from the HotSpot per-thread counters,
+ * which are cheap enough to sample around every request and task.
+ * Virtual threads have no per-thread CPU counter, so work on them (the ILP fetches) is not counted.
+ */
+public final class RequestResources {
+
+    /** Request attribute holding the current request's accounting. */
+    public static final String ATTRIBUTE = RequestResources.class.getName();
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final ThreadLocal<RequestResources> current = new ThreadLocal<>();
+
+    private final long startAllocated = allocatedOnThisThread();
+    private final long startCpu = cpuOnThisThread();
+    // guarded by this: finished hand-offs, and the ones still running (read live from their threads, since the
+    // caller can be woken by the task's future before the task's own accounting has run)
+    private long handedOffAllocated;
+    private long handedOffCpu;
+    private final Set<RunningTask> running = new HashSet<>();
+
+    private static final class RunningTask {
+        private final long threadId = Thread.currentThread().threadId();
+        private final long startAllocated = allocatedOnThisThread();
+        private final long startCpu = cpuOnThisThread();
+    }
+
+    private RequestResources() {}
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Starts accounting on the calling (request) thread.
+     */
+    static RequestResources start() {
+        RequestResources resources = new RequestResources();
+        current.set(resources);
+        return resources;
+    }
+
+    /**
+     * Stops attributing work on the calling thread to this request.
+     */
+    void detach() {
+        current.remove();
+    }
+
+    /**
+     * Bytes allocated so far. Must be called on the request thread, whose counter is read directly.
+     */
+    public long allocatedBytes() {
+        long own = allocatedOnThisThread() - startAllocated;
+        synchronized (this) {
+            long total = own + handedOffAllocated;
+            for (RunningTask task : running) {
+                total += Math.max(0, THREADS.getThreadAllocatedBytes(task.threadId) - task.startAllocated);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * CPU time so far. Must be called on the request thread, whose counter is read directly.
+     */
+    public long cpuNanos() {
+        long own = cpuOnThisThread() - startCpu;
+        synchronized (this) {
+            long total = own + handedOffCpu;
+            for (RunningTask task : running) {
+                total += Math.max(0, THREADS.getThreadCpuTime(task.threadId) - task.startCpu);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Wraps a task so what it allocates and burns on its worker thread is charged to the request submitting it.
+     * Tasks submitted outside a request are returned as they are.
+     */
+    static Runnable charging(Runnable task) {
+        RequestResources owner = current.get();
+        if (owner == null || THREADS == null) {
+            return task;
+        }
+        return () -> {
+            RequestResources previous = current.get();
+            current.set(owner); // nested hand-offs are charged to the same request
+            RunningTask running = new RunningTask();
+            synchronized (owner) {
+                owner.running.add(running);
+            }
+            try {
+                task.run();
+            } finally {
+                long allocated = allocatedOnThisThread() - running.startAllocated;
+                long cpu = cpuOnThisThread() - running.startCpu;
+                synchronized (owner) {
+                    owner.running.remove(running);
+                    owner.handedOffAllocated += allocated;
+                    owner.handedOffCpu += cpu;
+                }
+                if (previous == null) {
+                    current.remove();
+                } else {
+                    current.set(previous);
+                }
+            }
+        };
+    }
+
+    private static long allocatedOnThisThread() {
+        return THREADS == null ? 0 : Math.max(0, THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    private static long cpuOnThisThread() {
+        return THREADS == null ? 0 : Math.max(0, THREADS.getCurrentThreadCpuTime());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isCurrentThreadCpuTimeSupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,40 @@
+package ILP.coursework.ILP.coursework1.config;
+
+import ILP.coursework.ILP.coursework1.Controllers.ServiceController;
+import ILP.coursework.ILP.coursework1.client.CachingIlpRestClient;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * While the ILP service is failing and answers come from the last good reference data, says so on every API
+ * response: X-Reference-Data-Stale carries the age of that data in seconds.
+ */
+@ControllerAdvice(basePackageClasses = ServiceController.class)
+public class StaleReferenceDataAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "X-Reference-Data-Stale";
+
+    private final CachingIlpRestClient ilpClient;
+
+    public StaleReferenceDataAdvice(CachingIlpRestClient ilpClient) {
+        this.ilpClient = ilpClient;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ilpClient.staleness().ifPresent(age -> response.getHeaders().set(STALE_HEADER, Long.toString(age.toSeconds())));
+        return body;
+    }
+}
@@ -1,20 +1,46 @@
 package ILP.coursework.ILP.coursework1.dto;
 
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalTime;
 import java.util.List;
 
+/**
+ * unscheduledDispatches are dispatches that were planned into a trip but had no drone free to fly it that day;
+ * only present when there are any.
+ */
 public record DeliveryPathResponse(
         double totalCost,
         int totalMoves,
-        List<DronePath> dronePaths
+        List<DronePath> dronePaths,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Long> unscheduledDispatches
 ) {
+    public DeliveryPathResponse(double totalCost, int totalMoves, List<DronePath> dronePaths) {
+        this(totalCost, totalMoves, dronePaths, List.of());
+    }
+
+    /**
+     * departure and returnTime are set when the trip was put on the fleet timeline, so it may leave later than
+     * its earliest dispatch if the drone was still busy.
+     */
     public record DronePath(
             String droneId, // Drone ID is a String
-            List<Delivery> deliveries
-    ) {}
+            List<Delivery> deliveries,
+            @JsonInclude(JsonInclude.Include.NON_NULL) LocalTime departure,
+            @JsonInclude(JsonInclude.Include.NON_NULL) LocalTime returnTime
+    ) {
+        public DronePath(String droneId, List<Delivery> deliveries) {
+            this(droneId, deliveries, null, null);
+        }
+
+        public DronePath scheduled(LocalTime departure, LocalTime returnTime) {
+            return new DronePath(droneId, deliveries, departure, returnTime);
+        }
+    }
 
     public record Delivery(
             Long deliveryId, // MedDispatchRec ID is a Long
             List<Position> flightPath
     ) {}
-}
\ No newline at end of file
+}
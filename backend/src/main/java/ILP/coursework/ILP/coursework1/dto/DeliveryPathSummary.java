@@ -0,0 +1,19 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Last record of a streamed delivery plan, sent after every DronePath.
+ */
+public record DeliveryPathSummary(
+        double totalCost,
+        int totalMoves,
+        int dronePathCount,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Long> unscheduledDispatches
+) {
+    public DeliveryPathSummary(double totalCost, int totalMoves, int dronePathCount) {
+        this(totalCost, totalMoves, dronePathCount, List.of());
+    }
+}
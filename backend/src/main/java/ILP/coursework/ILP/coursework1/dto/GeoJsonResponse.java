@@ -1,14 +1,27 @@
 package ILP.coursework.ILP.coursework1.dto;
 
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * GeoJSON FeatureCollection of the flight paths. profile is a foreign member, only present when asked for.
+ */
 public record GeoJsonResponse(
         String type,
-        List<Feature> features
+        List<Feature> features,
+        @JsonInclude(JsonInclude.Include.NON_NULL) PlanProfile profile
 ) {
+    public GeoJsonResponse(String type, List<Feature> features) {
+        this(type, features, null);
+    }
+
+    public GeoJsonResponse withProfile(PlanProfile profile) {
+        return new GeoJsonResponse(type, features, profile);
+    }
+
     public record Feature(
             String type,
             Geometry geometry,
@@ -62,6 +62,32 @@ public class JsonDtos {
     ) {}
 
 
+    /**
+     * Request for /distanceTo/batch and /isCloseTo/batch, points as [lng, lat] pairs.
+     * positions2 matches positions1 index by index, or is a single point compared with all of them.
+     */
+    public record BatchTwoPositionRequest(
+            @NotNull double[][] positions1,
+            @NotNull double[][] positions2
+    ) {}
+
+    /**
+     * Request for /nextPosition/batch: one angle per start, or a single angle for all of them.
+     */
+    public record BatchNextPositionRequest(
+            @NotNull double[][] starts,
+            @NotNull double[] angles
+    ) {}
+
+    /**
+     * Request for /isInRegion/batch: many points tested against one region.
+     */
+    public record BatchIsInRegionRequest(
+            @NotNull double[][] positions,
+            @NotNull @Valid Region region
+    ) {}
+
+
     /**
      * Represents a medication dispatch record for delivery requests
      */
@@ -0,0 +1,12 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import java.util.List;
+
+/**
+ * What an edit changed in a plan. A repaired trip shows up as its old path removed and its new path added.
+ */
+public record PlanDiff(
+        List<DeliveryPathResponse.DronePath> addedPaths,
+        List<DeliveryPathResponse.DronePath> removedPaths,
+        List<Long> unplannedDispatches // dispatches of the edited day that are in no trip after the edit
+) {}
@@ -0,0 +1,32 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the time of one delivery path calculation went, returned when a request asks for profile=true.
+ * Phase times are in milliseconds; pathfinding is summed over the threads evaluating candidates.
+ */
+public record PlanProfile(
+        double totalMillis,
+        Map<String, Double> phaseMillis,
+        ReferenceData referenceData,
+        int segmentHits,
+        int segmentMisses,
+        int rejectedSubsets,
+        List<Search> searches
+) {
+    /**
+     * The snapshot the plan was made against. fetchedForRequest is true when this request waited for the
+     * upstream calls rather than getting a cached snapshot.
+     */
+    public record ReferenceData(long version, Instant fetchedAt, boolean fetchedForRequest) {}
+
+    /**
+     * One A* search run for this request, slowest first.
+     */
+    public record Search(Position start, Position end, String outcome, int expandedNodes, int peakOpenSet, double millis) {}
+}
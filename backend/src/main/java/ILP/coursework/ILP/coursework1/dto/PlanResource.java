@@ -0,0 +1,13 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Response for the /plans endpoints: the plan as it stands, plus the diff when it was just edited.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanResource(
+        String planId,
+        DeliveryPathResponse plan,
+        PlanDiff diff
+) {}
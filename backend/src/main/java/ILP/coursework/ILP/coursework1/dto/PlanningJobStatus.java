@@ -0,0 +1,23 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Response for the /planningJobs endpoints: job state, progress, and the plan once it is done.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanningJobStatus(
+        String jobId,
+        State status,
+        int dispatchesPlanned,
+        int totalDispatches,
+        DeliveryPathResponse result, // only set once COMPLETED
+        String error                 // only set once FAILED
+) {
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package ILP.coursework.ILP.coursework1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A {@link DeliveryPathResponse} with the profile of the calculation that produced it.
+ */
+public record ProfiledDeliveryPathResponse(
+        double totalCost,
+        int totalMoves,
+        List<DeliveryPathResponse.DronePath> dronePaths,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Long> unscheduledDispatches,
+        PlanProfile profile
+) {
+    public static ProfiledDeliveryPathResponse of(DeliveryPathResponse response, PlanProfile profile) {
+        return new ProfiledDeliveryPathResponse(response.totalCost(), response.totalMoves(), response.dronePaths(),
+                response.unscheduledDispatches(), profile);
+    }
+}
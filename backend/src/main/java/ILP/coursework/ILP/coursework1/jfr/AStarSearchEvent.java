@@ -0,0 +1,46 @@
+package ILP.coursework.ILP.coursework1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One A* search, from the first node to the result. Committed for every search while a recording is running.
+ */
+@Name("ilp.AStarSearch")
+@Label("A* Search")
+@Category({"ILP", "Planning"})
+@StackTrace(false)
+public class AStarSearchEvent extends jdk.jfr.Event {
+
+    @Label("Start Longitude")
+    public double startLng;
+
+    @Label("Start Latitude")
+    public double startLat;
+
+    @Label("End Longitude")
+    public double endLng;
+
+    @Label("End Latitude")
+    public double endLat;
+
+    @Label("Outcome")
+    @Description("found, no_path or max_iterations")
+    public String outcome;
+
+    @Label("Expanded Nodes")
+    public int expandedNodes;
+
+    @Label("Peak Open Set")
+    public int peakOpenSet;
+
+    @Label("Path Length")
+    @Description("Positions in the returned path, 0 when none was found")
+    public int pathLength;
+
+    @Label("No-Fly Zones")
+    public int noFlyZones;
+}
@@ -0,0 +1,33 @@
+package ILP.coursework.ILP.coursework1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to an ILP REST endpoint.
+ */
+@Name("ilp.IlpFetch")
+@Label("ILP Fetch")
+@Category({"ILP", "Upstream"})
+@StackTrace(false)
+public class IlpFetchEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Outcome")
+    @Description("ok, not_modified, unchanged, empty or error")
+    public String outcome;
+
+    @Label("Status Code")
+    @Description("0 when no response came back")
+    public int statusCode;
+
+    @Label("Body Size")
+    @DataAmount
+    public long bodyBytes;
+}
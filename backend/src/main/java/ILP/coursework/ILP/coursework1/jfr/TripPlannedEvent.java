@@ -0,0 +1,38 @@
+package ILP.coursework.ILP.coursework1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A trip that was built from a service point and could be flown by at least one drone, spanning pathfinding
+ * and pricing.
+ */
+@Name("ilp.TripPlanned")
+@Label("Trip Planned")
+@Category({"ILP", "Planning"})
+@StackTrace(false)
+public class TripPlannedEvent extends jdk.jfr.Event {
+
+    @Label("Service Point")
+    public long servicePointId;
+
+    @Label("Dispatches")
+    public int dispatches;
+
+    @Label("Candidate Drones")
+    public int candidateDrones;
+
+    @Label("Feasible Drones")
+    public int feasibleDrones;
+
+    @Label("Cheapest Drone")
+    public String cheapestDrone;
+
+    @Label("Moves")
+    public int moves;
+
+    @Label("Cost")
+    public double cost;
+}
@@ -0,0 +1,35 @@
+package ILP.coursework.ILP.coursework1.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A trip that was given up on: no path, every drone over its limits, or no drone free on the timeline.
+ */
+@Name("ilp.TripRejected")
+@Label("Trip Rejected")
+@Category({"ILP", "Planning"})
+@StackTrace(false)
+public class TripRejectedEvent extends jdk.jfr.Event {
+
+    @Label("Reason")
+    @Description("no_path, over_limits or no_drone_free")
+    public String reason;
+
+    @Label("Service Point")
+    @Description("0 when the trip was rejected by the scheduler")
+    public long servicePointId;
+
+    @Label("Dispatches")
+    public int dispatches;
+
+    @Label("Candidate Drones")
+    public int candidateDrones;
+
+    @Label("Moves")
+    @Description("Moves of the built path, 0 when there is none")
+    public int moves;
+}
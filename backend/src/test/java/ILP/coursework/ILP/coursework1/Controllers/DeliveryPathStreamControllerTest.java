@@ -0,0 +1,99 @@
+package ILP.coursework.ILP.coursework1.Controllers;
+
+import ILP.coursework.ILP.coursework1.Exception.RestExceptionHandler;
+import ILP.coursework.ILP.coursework1.Service.PathService;
+import ILP.coursework.ILP.coursework1.Service.PlanningListener;
+import ILP.coursework.ILP.coursework1.Service.PlanningMode;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse.Delivery;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse.DronePath;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathSummary;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DeliveryPathStreamControllerTest {
+
+    private static final DronePath FIRST = new DronePath("1",
+            List.of(new Delivery(1L, List.of(new Position(-3.18, 55.94)))));
+    private static final DronePath SECOND = new DronePath("2",
+            List.of(new Delivery(2L, List.of(new Position(-3.19, 55.95)))));
+
+    private final PathService pathService = mock(PathService.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(pathService.streamDeliveryPath(any(), eq(PlanningMode.GREEDY), any())).thenAnswer(inv -> {
+            PlanningListener listener = inv.getArgument(2);
+            listener.onTripPlanned(FIRST);
+            listener.onTripPlanned(SECOND);
+            return new DeliveryPathSummary(7.5, 42, 2);
+        });
+        DeliveryPathStreamController controller =
+                new DeliveryPathStreamController(pathService, executor, new ObjectMapper(), Duration.ofSeconds(10));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("NDJSON stream has one line per drone path followed by the summary")
+    void ndjsonStreamsPathsThenSummary() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/calcDeliveryPathStream")
+                        .accept("application/x-ndjson")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("\"droneId\":\"1\"");
+        assertThat(lines.get(1)).contains("\"droneId\":\"2\"");
+        assertThat(lines.get(2)).isEqualTo("{\"totalCost\":7.5,\"totalMoves\":42,\"dronePathCount\":2}");
+    }
+
+    @Test
+    @DisplayName("SSE stream names each event")
+    void sseStreamsNamedEvents() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/calcDeliveryPathStream")
+                        .accept("text/event-stream")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).containsSubsequence("event:dronePath", "event:dronePath", "event:summary");
+        assertThat(body).contains("\"totalMoves\":42");
+    }
+}
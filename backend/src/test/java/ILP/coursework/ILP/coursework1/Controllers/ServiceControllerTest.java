@@ -2,6 +2,8 @@ package ILP.coursework.ILP.coursework1.Controllers;
 
 import ILP.coursework.ILP.coursework1.Exception.RestExceptionHandler;
 import ILP.coursework.ILP.coursework1.Service.GeometryService;
+import ILP.coursework.ILP.coursework1.Service.IdempotencyKeyReusedException;
+import ILP.coursework.ILP.coursework1.Service.PlanCache;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +21,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -31,6 +34,9 @@ class ServiceControllerTest {
     @Mock
     private GeometryService geometryService;
 
+    @Mock
+    private PlanCache planCache;
+
     @InjectMocks
     private ServiceController serviceController;
 
@@ -98,6 +104,18 @@ class ServiceControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("POST /calcDeliveryPath reusing an Idempotency-Key for a different batch should return status 422")
+    void calcDeliveryPathWithReusedIdempotencyKey() throws Exception {
+        when(planCache.plan(any(), any(), eq("retry-1"))).thenThrow(new IdempotencyKeyReusedException("retry-1"));
+
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     @DisplayName("POST /isInRegion with a valid request should call service and return result with 200 OK")
     void isInRegionShouldReturnTrue() throws Exception {
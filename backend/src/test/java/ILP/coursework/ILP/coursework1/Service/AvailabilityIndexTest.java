@@ -0,0 +1,86 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint.Availability;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIndexTest {
+
+    @Test
+    @DisplayName("Minute bitmaps match the [from, until) windows, seconds included")
+    void minuteBitmaps() {
+        AvailabilityIndex index = new AvailabilityIndex(List.of(
+                List.of(new Availability("MONDAY", "09:00", "12:00"), new Availability("MONDAY", "23:00", "23:59"))));
+
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(8, 59, 59))).isFalse();
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(9, 0))).isTrue();
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(11, 59, 59))).isTrue();
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(12, 0))).isFalse();
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(23, 58))).isTrue();
+        assertThat(index.isAvailable(0, DayOfWeek.MONDAY, LocalTime.of(23, 59))).isFalse();
+        assertThat(index.isAvailable(0, DayOfWeek.TUESDAY, LocalTime.of(10, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Windows that don't start on a whole minute fall back to exact second checks")
+    void unalignedWindows() {
+        AvailabilityIndex index = new AvailabilityIndex(List.of(
+                List.of(new Availability("FRIDAY", "09:00:30", "09:02:15"))));
+
+        assertThat(index.isAvailable(0, DayOfWeek.FRIDAY, LocalTime.of(9, 0, 29))).isFalse();
+        assertThat(index.isAvailable(0, DayOfWeek.FRIDAY, LocalTime.of(9, 0, 30))).isTrue();
+        assertThat(index.isAvailable(0, DayOfWeek.FRIDAY, LocalTime.of(9, 2, 14))).isTrue();
+        assertThat(index.isAvailable(0, DayOfWeek.FRIDAY, LocalTime.of(9, 2, 15))).isFalse();
+        assertThat(index.availableAt(DayOfWeek.FRIDAY, LocalTime.of(9, 0, 45)).get(0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Earliest available second looks through the windows in time order for one long enough")
+    void earliestAvailable() {
+        AvailabilityIndex index = new AvailabilityIndex(List.of(List.of(
+                new Availability("MONDAY", "14:00", "16:00"),
+                new Availability("MONDAY", "09:00", "12:00"),
+                new Availability("MONDAY", "12:00", "12:30"))));
+        AvailabilityIndex.Schedule monday = index.schedule(0);
+        int hour = 3600;
+
+        assertThat(monday.earliestAvailable(DayOfWeek.MONDAY, LocalTime.of(8, 0).toSecondOfDay(), hour))
+                .isEqualTo(LocalTime.of(9, 0).toSecondOfDay());
+        assertThat(monday.earliestAvailable(DayOfWeek.MONDAY, LocalTime.of(10, 0).toSecondOfDay(), hour))
+                .isEqualTo(LocalTime.of(10, 0).toSecondOfDay());
+        // touching windows count as one, 11:30 to 12:30 fits
+        assertThat(monday.earliestAvailable(DayOfWeek.MONDAY, LocalTime.of(11, 30).toSecondOfDay(), hour))
+                .isEqualTo(LocalTime.of(11, 30).toSecondOfDay());
+        // too little left before 12:30, the next window that's long enough
+        assertThat(monday.earliestAvailable(DayOfWeek.MONDAY, LocalTime.of(11, 45).toSecondOfDay(), hour))
+                .isEqualTo(LocalTime.of(14, 0).toSecondOfDay());
+        assertThat(monday.earliestAvailable(DayOfWeek.MONDAY, LocalTime.of(15, 30).toSecondOfDay(), hour))
+                .isEqualTo(Integer.MAX_VALUE);
+        assertThat(index.schedule(-1).earliestAvailable(DayOfWeek.MONDAY, 0, 0)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("The fleet bitset for a minute holds every drone available then, past 64 drones too")
+    void fleetBitsets() {
+        // drone i is available from i minutes past nine until eleven
+        List<List<Availability>> schedules = IntStream.range(0, 100)
+                .mapToObj(i -> List.of(new Availability("WEDNESDAY", LocalTime.of(9, 0).plusMinutes(i).toString(), "11:00")))
+                .toList();
+        AvailabilityIndex index = new AvailabilityIndex(schedules);
+
+        BitSet atNineThirty = index.availableAt(DayOfWeek.WEDNESDAY, LocalTime.of(9, 30));
+        assertThat(atNineThirty.cardinality()).isEqualTo(31);
+        assertThat(atNineThirty.get(30)).isTrue();
+        assertThat(atNineThirty.get(31)).isFalse();
+        assertThat(index.availableAt(DayOfWeek.WEDNESDAY, LocalTime.of(10, 45)).cardinality()).isEqualTo(100);
+        assertThat(index.availableAt(DayOfWeek.WEDNESDAY, LocalTime.of(11, 0)).isEmpty()).isTrue();
+    }
+}
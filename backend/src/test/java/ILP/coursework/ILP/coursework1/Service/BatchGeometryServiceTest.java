@@ -0,0 +1,91 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchGeometryServiceTest {
+
+    private static final Region REGION = new Region("L shape", List.of(
+            new Position(-3.190, 55.940), new Position(-3.180, 55.940), new Position(-3.180, 55.945),
+            new Position(-3.185, 55.945), new Position(-3.185, 55.950), new Position(-3.190, 55.950),
+            new Position(-3.190, 55.940)));
+
+    private final GeometryService geometryService = new GeometryServiceImpl();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    // low threshold so the parallel path is exercised too
+    private final BatchGeometryService batchGeometry = new BatchGeometryService(executor, 64, 10_000);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Batch region test agrees with the single-point check, including vertices and edges")
+    void inRegionMatchesSingleChecks() {
+        Random random = new Random(7);
+        double[][] points = new double[1000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{-3.192 + random.nextDouble() * 0.014, 55.938 + random.nextDouble() * 0.014};
+        }
+        points[0] = new double[]{-3.180, 55.940};   // vertex
+        points[1] = new double[]{-3.185, 55.9475};  // on an edge
+        points[2] = new double[]{-3.1825, 55.9475}; // in the notch of the L
+
+        boolean[] result = batchGeometry.inRegion(REGION, points);
+
+        for (int i = 0; i < points.length; i++) {
+            boolean expected = geometryService.isPointInRegion(new Position(points[i][0], points[i][1]), REGION);
+            assertThat(result[i]).as("point %d", i).isEqualTo(expected);
+        }
+        assertThat(result[0]).isTrue();
+        assertThat(result[1]).isTrue();
+        assertThat(result[2]).isFalse();
+    }
+
+    @Test
+    @DisplayName("Batch distances and next positions are exactly the single-call results")
+    void distancesAndMovesMatchSingleCalls() {
+        double[][] from = {{-3.186874, 55.944494}, {-3.19, 55.94}, {0, 0}};
+        double[][] to = {{-3.186, 55.9445}};
+
+        double[] distances = batchGeometry.distances(from, to);
+        boolean[] close = batchGeometry.closeTo(from, to);
+        double[][] next = batchGeometry.nextPositions(from, new double[]{0, 22.5, 337.5});
+
+        for (int i = 0; i < from.length; i++) {
+            Position p = new Position(from[i][0], from[i][1]);
+            Position q = new Position(to[0][0], to[0][1]);
+            assertThat(distances[i]).isEqualTo(geometryService.calculateDistance(p, q));
+            assertThat(close[i]).isEqualTo(geometryService.checkPointsClose(p, q));
+        }
+        Position moved = geometryService.calculateNextPosition(new Position(-3.19, 55.94), 22.5);
+        assertThat(next[1]).containsExactly(moved.lng(), moved.lat());
+    }
+
+    @Test
+    @DisplayName("Invalid batches are rejected")
+    void invalidInputIsRejected() {
+        Region open = new Region("open", REGION.vertices().subList(0, 4));
+
+        assertThatThrownBy(() -> batchGeometry.inRegion(open, new double[][]{{0, 0}}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> batchGeometry.distances(new double[][]{{0, 0}, {1, 1}}, new double[][]{{0, 0}, {1, 1}, {2, 2}}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> batchGeometry.nextPositions(new double[][]{{0, 0}}, new double[]{10}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> batchGeometry.distances(new double[][]{{0, 91}}, new double[][]{{0, 0}}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
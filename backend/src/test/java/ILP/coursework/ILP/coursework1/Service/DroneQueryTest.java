@@ -0,0 +1,87 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Query;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DroneQueryTest {
+
+    private final DroneColumns columns = new DroneColumns(List.of(
+            new Drone("1", "Drone 1", new Drone.Capability(true, false, 4.0, 2000, 0.01, 4.3, 6.5)),
+            new Drone("2", "Drone 2", new Drone.Capability(false, true, 8.0, 1000, 0.03, 2.6, 5.4)),
+            new Drone("3", "Drone 3", new Drone.Capability(true, true, 20.0, 4000, 0.05, 9.5, 11.5))));
+
+    @Test
+    @DisplayName("Terms are ANDed and numeric operators compare as before")
+    void evaluatesTerms() {
+        assertThat(run(new Query("capacity", ">=", "8"))).containsExactly("2", "3");
+        assertThat(run(new Query("maxMoves", "<", "2000"))).containsExactly("2");
+        assertThat(run(new Query("costPerMove", "!=", "0.03"))).containsExactly("1", "3");
+        assertThat(run(new Query("cooling", "=", "true"), new Query("capacity", ">", "5"))).containsExactly("3");
+        assertThat(run(new Query("heating", "=", "FALSE"))).containsExactly("1");
+        assertThat(run(new Query("heating", "!=", "true"))).containsExactly("1");
+        assertThat(run()).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    @DisplayName("Index lookups agree with comparing every drone, ties and all")
+    void sortedIndexMatchesScan() {
+        Random random = new Random(7);
+        List<Drone> fleet = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // few distinct values so there are plenty of ties
+            fleet.add(new Drone(String.valueOf(i), "Drone " + i, new Drone.Capability(random.nextBoolean(), random.nextBoolean(),
+                    random.nextInt(10), 1000 + random.nextInt(5) * 500, 0.01 * random.nextInt(5), 1.0, 1.0)));
+        }
+        DroneColumns large = new DroneColumns(fleet);
+
+        for (String operator : List.of("=", "!=", "<", "<=", ">", ">=")) {
+            for (double value : new double[]{-1, 0, 3, 4.5, 9, 12}) {
+                List<String> expected = fleet.stream()
+                        .filter(d -> compare(d.capability().capacity(), operator, value))
+                        .map(Drone::id).toList();
+                List<String> actual = large.ids(DroneQuery.compile(
+                        List.of(new Query("capacity", operator, String.valueOf(value)))).evaluate(large));
+                assertThat(actual).as("capacity %s %s", operator, value).isEqualTo(expected);
+            }
+        }
+        assertThat(large.ids(DroneQuery.compile(List.of(new Query("capacity", "!=", "NaN"))).evaluate(large))).hasSize(500);
+        assertThat(large.ids(DroneQuery.compile(List.of(new Query("capacity", "<=", "NaN"))).evaluate(large))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Malformed terms fail when compiled instead of matching nothing")
+    void compileErrors() {
+        assertThatThrownBy(() -> DroneQuery.compile(List.of(new Query("colour", "=", "red"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("colour");
+        assertThatThrownBy(() -> DroneQuery.compile(List.of(new Query("capacity", "~", "4"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("~");
+        assertThatThrownBy(() -> DroneQuery.compile(List.of(new Query("capacity", "=", "four"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("four");
+        assertThatThrownBy(() -> DroneQuery.compile(List.of(new Query("cooling", "<", "true"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean compare(double left, String operator, double right) {
+        return switch (operator) {
+            case "=" -> left == right;
+            case "!=" -> left != right;
+            case "<" -> left < right;
+            case "<=" -> left <= right;
+            case ">" -> left > right;
+            default -> left >= right;
+        };
+    }
+
+    private List<String> run(Query... terms) {
+        return columns.ids(DroneQuery.compile(List.of(terms)).evaluate(columns));
+    }
+}
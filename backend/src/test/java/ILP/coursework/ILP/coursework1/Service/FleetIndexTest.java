@@ -0,0 +1,85 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint.Availability;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint.DroneAvailability;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FleetIndexTest {
+
+    private static final Drone DRONE_1 = drone("1");
+    private static final Drone DRONE_2 = drone("2");
+    private static final ServicePoint TOWER = new ServicePoint(1L, "Appleton Tower", new Position(-3.186874, 55.944494));
+    private static final ServicePoint OCEAN = new ServicePoint(2L, "Ocean Terminal", new Position(-3.17732, 55.98186));
+
+    private final ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.of(
+            new Drone[]{DRONE_1, DRONE_2},
+            new ServicePoint[]{TOWER, OCEAN},
+            new DroneForServicePoint[]{
+                    new DroneForServicePoint(1L, List.of(new DroneAvailability("1", List.of(
+                            new Availability("MONDAY", "09:00", "12:00"))))),
+                    new DroneForServicePoint(2L, List.of(
+                            new DroneAvailability("1", List.of(new Availability("MONDAY", "14:00", "16:00"))),
+                            new DroneAvailability("2", List.of(new Availability("TUESDAY", "00:00", "23:59")))))
+            },
+            new RestrictedArea[0]);
+
+    @Test
+    @DisplayName("Drones are based at the first listed service point and grouped by it")
+    void lookups() {
+        FleetIndex index = FleetIndex.of(snapshot);
+
+        assertThat(index.drone("2")).contains(DRONE_2);
+        assertThat(index.drone("9")).isEmpty();
+        assertThat(index.servicePointFor("1")).contains(TOWER);
+        assertThat(index.servicePointFor("2")).contains(OCEAN);
+        assertThat(index.dronesAt(1L)).containsExactly(DRONE_1);
+        assertThat(index.dronesAt(2L)).containsExactly(DRONE_2);
+        assertThat(index.availabilityOf("1")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Availability merges every listing and treats windows as [from, until)")
+    void availability() {
+        FleetIndex index = FleetIndex.of(snapshot);
+
+        assertThat(index.isAvailable("1", DayOfWeek.MONDAY, LocalTime.of(9, 0))).isTrue();
+        assertThat(index.isAvailable("1", DayOfWeek.MONDAY, LocalTime.of(12, 0))).isFalse();
+        assertThat(index.isAvailable("1", DayOfWeek.MONDAY, LocalTime.of(15, 30))).isTrue();
+        assertThat(index.isAvailable("1", DayOfWeek.TUESDAY, LocalTime.of(10, 0))).isFalse();
+        assertThat(index.isAvailable("9", DayOfWeek.MONDAY, LocalTime.of(10, 0))).isFalse();
+
+        assertThat(index.availableAtAll(List.of(new FleetIndex.Slot(DayOfWeek.MONDAY, LocalTime.of(10, 0)),
+                new FleetIndex.Slot(DayOfWeek.MONDAY, LocalTime.of(15, 0))))).containsExactly(DRONE_1);
+        assertThat(index.availableAtAll(List.of(new FleetIndex.Slot(DayOfWeek.MONDAY, LocalTime.of(10, 0)),
+                new FleetIndex.Slot(DayOfWeek.TUESDAY, LocalTime.of(10, 0))))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The index is kept with the snapshot and carried over by a refresh that changed nothing")
+    void reusedPerSnapshot() {
+        FleetIndex first = FleetIndex.of(snapshot);
+
+        assertThat(FleetIndex.of(snapshot)).isSameAs(first);
+        assertThat(FleetIndex.of(snapshot.withVersion(2, 1, Instant.now()))).isSameAs(first);
+        assertThat(FleetIndex.of(ReferenceDataSnapshot.of(new Drone[]{DRONE_1}, new ServicePoint[0],
+                new DroneForServicePoint[0], new RestrictedArea[0]))).isNotSameAs(first);
+    }
+
+    private static Drone drone(String id) {
+        return new Drone(id, "Drone " + id, new Drone.Capability(true, false, 4.0, 2000, 0.01, 1.0, 1.0));
+    }
+}
@@ -0,0 +1,198 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class FleetSchedulerTest {
+
+    private static final List<DroneForServicePoint.Availability> FRIDAY_DAY =
+            List.of(new DroneForServicePoint.Availability("FRIDAY", "09:00", "17:00"));
+    private static final List<DroneForServicePoint.Availability> FRIDAY_NIGHT =
+            List.of(new DroneForServicePoint.Availability("FRIDAY", "22:00", "23:59"));
+    // "cheap" and "only" are drone 0, "pricey" drone 1, "owl" drone 2
+    private static final AvailabilityIndex FLEET = new AvailabilityIndex(List.of(FRIDAY_DAY, FRIDAY_DAY, FRIDAY_NIGHT));
+    private static final Map<String, AvailabilityIndex.Schedule> SCHEDULES = Map.of(
+            "cheap", FLEET.schedule(0), "only", FLEET.schedule(0), "pricey", FLEET.schedule(1), "owl", FLEET.schedule(2));
+
+    private FleetScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // 1 second per move, 5 minute turnaround
+        scheduler = new FleetScheduler(true, 1.0, 300);
+    }
+
+    @Test
+    @DisplayName("Overlapping trips go to different drones when both are free")
+    void overlappingTripsSpreadAcrossDrones() {
+        List<Optional<FleetScheduler.Assignment>> result = schedule(
+                trip("10:00", 600, candidate("cheap", 3.0), candidate("pricey", 5.0)),
+                trip("10:05", 600, candidate("cheap", 3.0), candidate("pricey", 5.0)));
+
+        assertThat(result.get(0)).hasValueSatisfying(a -> assertThat(a.candidate().droneId()).isEqualTo("cheap"));
+        assertThat(result.get(1)).hasValueSatisfying(a -> {
+            assertThat(a.candidate().droneId()).isEqualTo("pricey");
+            assertThat(a.departure()).isEqualTo(LocalTime.of(10, 5));
+        });
+    }
+
+    @Test
+    @DisplayName("A drone is reused once it is back and turned around")
+    void droneReusedAfterTurnaround() {
+        List<Optional<FleetScheduler.Assignment>> result = schedule(
+                trip("10:00", 600, candidate("only", 3.0)),
+                trip("10:05", 600, candidate("only", 3.0)));
+
+        // back at 10:10, free again at 10:15
+        assertThat(result.get(0)).hasValueSatisfying(a -> assertThat(a.returnTime()).isEqualTo(LocalTime.of(10, 10)));
+        assertThat(result.get(1)).hasValueSatisfying(a -> assertThat(a.departure()).isEqualTo(LocalTime.of(10, 15)));
+    }
+
+    @Test
+    @DisplayName("Trips that would still be out, or turning around, when the window closes are not scheduled")
+    void tripMustFitInsideAvailability() {
+        List<Optional<FleetScheduler.Assignment>> result = schedule(
+                trip("16:40", 600, candidate("only", 3.0)),
+                trip("16:41", 600, candidate("only", 3.0)));
+
+        // 16:40 is back and turned around at 16:55; 16:41 would have to wait for it and end at 17:10
+        assertThat(result.get(0)).isPresent();
+        assertThat(result.get(1)).isEmpty();
+        // turned around at exactly 17:00 still fits, a minute later doesn't
+        assertThat(schedule(trip("16:50", 300, candidate("pricey", 3.0))).get(0)).isPresent();
+        assertThat(schedule(trip("16:51", 300, candidate("pricey", 3.0))).get(0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Trips that would run past midnight are not scheduled, their return isn't clamped to 23:59:59")
+    void tripPastMidnightIsRejected() {
+        List<Optional<FleetScheduler.Assignment>> result = schedule(
+                trip("23:30", 600, candidate("owl", 3.0)),
+                trip("23:50", 600, candidate("owl", 3.0)));
+
+        assertThat(result.get(0)).hasValueSatisfying(a -> assertThat(a.returnTime()).isEqualTo(LocalTime.of(23, 40)));
+        assertThat(result.get(1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A trip no drone is free for is replaced by what split offers, and only reported when there's nothing")
+    void unschedulableTripIsSplit() {
+        FleetScheduler.TripRequest tooLong = trip("10:00", 30_000, candidate("only", 3.0));
+        FleetScheduler.TripRequest shortOne = trip("09:30", 600, candidate("only", 3.0));
+        FleetScheduler.Day<FleetScheduler.TripRequest> day = scheduler.day(DayOfWeek.FRIDAY, SCHEDULES::get,
+                Function.identity(), trip -> trip == tooLong ? List.of(shortOne) : List.of());
+
+        day.offer(tooLong);
+        List<FleetScheduler.Outcome<FleetScheduler.TripRequest>> outcomes = day.drain();
+
+        // the replacement can't leave before the trip it replaces was looked at
+        assertThat(outcomes).singleElement().satisfies(outcome -> {
+            assertThat(outcome.trip()).isSameAs(shortOne);
+            assertThat(outcome.assignment()).hasValueSatisfying(a -> assertThat(a.departure()).isEqualTo(LocalTime.of(10, 0)));
+        });
+    }
+
+    @Test
+    @DisplayName("Polling while trips are still being offered decides every trip as if they had all been offered up front")
+    void incrementalPollingMatchesBatch() {
+        Random random = new Random(42);
+        List<FleetScheduler.Candidate> pool = List.of(candidate("cheap", 3.0), candidate("pricey", 5.0));
+        List<FleetScheduler.TripRequest> trips = IntStream.range(0, 200)
+                .mapToObj(i -> new FleetScheduler.TripRequest(LocalTime.of(9, 0).plusMinutes(random.nextInt(420)),
+                        60 + random.nextInt(900), pool.subList(0, 1 + random.nextInt(2))))
+                .toList();
+
+        Map<FleetScheduler.TripRequest, Optional<FleetScheduler.Assignment>> batch = new IdentityHashMap<>();
+        FleetScheduler.Day<FleetScheduler.TripRequest> all = day();
+        trips.forEach(all::offer);
+        all.drain().forEach(outcome -> batch.put(outcome.trip(), outcome.assignment()));
+
+        Map<FleetScheduler.TripRequest, Optional<FleetScheduler.Assignment>> incremental = new IdentityHashMap<>();
+        FleetScheduler.Day<FleetScheduler.TripRequest> oneByOne = day();
+        TreeMap<LocalTime, Integer> pending = new TreeMap<>();
+        trips.forEach(trip -> pending.merge(trip.readyAt(), 1, Integer::sum));
+        for (FleetScheduler.TripRequest trip : trips) {
+            pending.computeIfPresent(trip.readyAt(), (time, count) -> count > 1 ? count - 1 : null);
+            oneByOne.offer(trip);
+            List<FleetScheduler.Outcome<FleetScheduler.TripRequest>> decided =
+                    pending.isEmpty() ? oneByOne.drain() : oneByOne.pollUntil(pending.firstKey());
+            decided.forEach(outcome -> incremental.put(outcome.trip(), outcome.assignment()));
+        }
+
+        assertThat(incremental).hasSize(trips.size());
+        assertThat(trips.stream().map(incremental::get).toList()).isEqualTo(trips.stream().map(batch::get).toList());
+    }
+
+    @Test
+    @DisplayName("A day of thousands of trips is scheduled quickly without double-booking a drone")
+    void scalesToThousandsOfTrips() {
+        int drones = 50;
+        List<List<DroneForServicePoint.Availability>> windows = Collections.nCopies(drones, FRIDAY_DAY);
+        AvailabilityIndex fleet = new AvailabilityIndex(windows);
+        List<FleetScheduler.Candidate> candidates = IntStream.range(0, drones)
+                .mapToObj(i -> candidate("drone-" + i, 3.0 + i % 5))
+                .toList();
+        Random random = new Random(7);
+        List<FleetScheduler.TripRequest> trips = IntStream.range(0, 5000)
+                .mapToObj(i -> new FleetScheduler.TripRequest(LocalTime.of(9, 0).plusSeconds(random.nextInt(8 * 3600)),
+                        60 + random.nextInt(600), candidates))
+                .toList();
+
+        List<FleetScheduler.Outcome<FleetScheduler.TripRequest>> outcomes = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            FleetScheduler.Day<FleetScheduler.TripRequest> day = scheduler.day(DayOfWeek.FRIDAY,
+                    id -> fleet.schedule(Integer.parseInt(id.substring("drone-".length()))), Function.identity(), trip -> List.of());
+            trips.forEach(day::offer);
+            return day.drain();
+        });
+
+        assertThat(outcomes).hasSize(trips.size());
+        Map<String, List<FleetScheduler.Assignment>> byDrone = new HashMap<>();
+        for (FleetScheduler.Outcome<FleetScheduler.TripRequest> outcome : outcomes) {
+            outcome.assignment().ifPresent(a -> {
+                assertThat(a.departure()).isAfterOrEqualTo(outcome.trip().readyAt());
+                // back and turned around before the window closes
+                assertThat(a.returnTime().plusSeconds(300)).isBeforeOrEqualTo(LocalTime.of(17, 0));
+                byDrone.computeIfAbsent(a.candidate().droneId(), id -> new ArrayList<>()).add(a);
+            });
+        }
+        for (List<FleetScheduler.Assignment> assignments : byDrone.values()) {
+            assignments.sort(Comparator.comparing(FleetScheduler.Assignment::departure));
+            for (int i = 1; i < assignments.size(); i++) {
+                assertThat(assignments.get(i).departure())
+                        .isAfterOrEqualTo(assignments.get(i - 1).returnTime().plusSeconds(300));
+            }
+        }
+    }
+
+    private List<Optional<FleetScheduler.Assignment>> schedule(FleetScheduler.TripRequest... trips) {
+        FleetScheduler.Day<FleetScheduler.TripRequest> day = day();
+        Arrays.stream(trips).forEach(day::offer);
+        Map<FleetScheduler.TripRequest, Optional<FleetScheduler.Assignment>> decided = new IdentityHashMap<>();
+        day.drain().forEach(outcome -> decided.put(outcome.trip(), outcome.assignment()));
+        return Arrays.stream(trips).map(decided::get).toList();
+    }
+
+    private FleetScheduler.Day<FleetScheduler.TripRequest> day() {
+        return scheduler.day(DayOfWeek.FRIDAY, SCHEDULES::get, Function.identity(), trip -> List.of());
+    }
+
+    private FleetScheduler.TripRequest trip(String readyAt, int moves, FleetScheduler.Candidate... candidates) {
+        return new FleetScheduler.TripRequest(LocalTime.parse(readyAt), moves, List.of(candidates));
+    }
+
+    private FleetScheduler.Candidate candidate(String droneId, double cost) {
+        return new FleetScheduler.Candidate(droneId, cost);
+    }
+}
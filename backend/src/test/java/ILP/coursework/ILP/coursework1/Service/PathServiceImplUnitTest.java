@@ -1,8 +1,11 @@
 package ILP.coursework.ILP.coursework1.Service;
 
 import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
 import ILP.coursework.ILP.coursework1.dto.*;
 import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,13 +13,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +43,12 @@ class PathServiceImplUnitTest {
     
     @Mock
     private AStarPathfinder pathfinder;
+
+    @Spy
+    private FleetScheduler fleetScheduler = new FleetScheduler(true, 1.0, 300);
+
+    @Spy
+    private PlanningMetrics metrics = PlanningMetrics.standalone();
     
     @InjectMocks
     private PathServiceImpl pathService;
@@ -109,10 +124,12 @@ class PathServiceImplUnitTest {
             )
         };
         
-        // Mock ILP client - ALWAYS return these
-        when(ilpRestClient.getRestrictedAreas()).thenReturn(new RestrictedArea[0]);
-        when(ilpRestClient.getServicePoints()).thenReturn(new ServicePoint[]{testServicePoint});
-        when(ilpRestClient.getDronesForServicePoints()).thenReturn(droneAvailability);
+        // Mock ILP client - ALWAYS return this snapshot
+        when(ilpRestClient.snapshot()).thenReturn(ReferenceDataSnapshot.of(
+            new Drone[]{testDrone, precisionDrone, expensiveDrone},
+            new ServicePoint[]{testServicePoint},
+            droneAvailability,
+            new RestrictedArea[0]));
     }
 
     @Nested
@@ -253,10 +270,8 @@ class PathServiceImplUnitTest {
             uShapedPath.add(delivery); // Arrived
             
             // 2. Mock the Pathfinder to return this specific U-shape
-            when(droneService.findAvailableDronesForDispatches(anyList()))
+            when(droneService.findAvailableDronesForDispatches(anyList(), any(PlanningContext.class)))
                 .thenReturn(List.of("test-drone-1"));
-            when(droneService.findDroneDetailsById("test-drone-1"))
-                .thenReturn(Optional.of(testDrone));
                 
             when(pathfinder.findPath(any(Position.class), any(Position.class), anyList()))
                 .thenReturn(uShapedPath) // There
@@ -276,7 +291,129 @@ class PathServiceImplUnitTest {
             assertThat(response.totalCost()).isCloseTo(3.75, org.assertj.core.api.Assertions.offset(0.01)); // Changed from 3.70 to 3.75
         }
     }
+
+    @Nested
+    @DisplayName("FR2: Cost-aware drone selection (Unit Level)")
+    class DroneSelectionUnitTests {
+
+        @Test
+        @DisplayName("TC-FR2-UNIT-07: Cheapest candidate drone wins, path is only searched once per service point")
+        void testCheapestCandidateSelected() {
+            Position start = testServicePoint.location();
+            Position delivery = new Position(-3.19, 55.945);
+
+            // expensive drone listed first, the old planner would have taken it
+            when(droneService.findAvailableDronesForDispatches(anyList(), any(PlanningContext.class)))
+                .thenReturn(List.of("expensive-drone", "precision-drone"));
+            when(pathfinder.findPath(any(Position.class), any(Position.class), anyList()))
+                .thenReturn(createPath(start, 5))
+                .thenReturn(createPath(delivery, 4));
+
+            JsonDtos.MedDispatchRec dispatch = createDispatch(1L, 2.0, delivery);
+            DeliveryPathResponse response = pathService.calculateDeliveryPath(
+                Collections.singletonList(dispatch)
+            );
+
+            // 8 moves, Cost = 1.00 + (8 * 0.03) + 2.00 = 3.24
+            assertThat(response.dronePaths()).singleElement()
+                .satisfies(dp -> assertThat(dp.droneId()).isEqualTo("precision-drone"));
+            assertThat(response.totalCost()).isCloseTo(3.24,
+                org.assertj.core.api.Assertions.offset(0.01));
+            verify(pathfinder, times(2)).findPath(any(Position.class), any(Position.class), anyList());
+            // reference data is read once for the whole request
+            verify(ilpRestClient, times(1)).snapshot();
+        }
+    }
     
+    @Nested
+    @DisplayName("Fleet scheduling (Unit Level)")
+    class SchedulingUnitTests {
+
+        @Test
+        @DisplayName("Scheduled trips carry their departure and return time")
+        void scheduledTripHasTimes() {
+            Position start = testServicePoint.location();
+            Position delivery = new Position(-3.19, 55.945);
+            setupMocksForDrone("test-drone-1", testDrone, start, delivery, 5, 4);
+
+            DeliveryPathResponse response = pathService.calculateDeliveryPath(
+                Collections.singletonList(createDispatch(1L, 2.0, delivery)));
+
+            // 8 moves at 1 second each
+            assertThat(response.dronePaths()).singleElement().satisfies(dp -> {
+                assertThat(dp.departure()).isEqualTo(LocalTime.of(14, 30));
+                assertThat(dp.returnTime()).isEqualTo(LocalTime.of(14, 30, 8));
+            });
+            assertThat(response.unscheduledDispatches()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("A trip no drone is free for is reported as unscheduled, not dropped")
+        void tripWithoutFreeDroneIsReported() {
+            Position start = testServicePoint.location();
+            Position delivery = new Position(-3.19, 55.945);
+            setupMocksForDrone("test-drone-1", testDrone, start, delivery, 5, 4);
+
+            // every drone is done at 17:00
+            JsonDtos.MedDispatchRec late = new JsonDtos.MedDispatchRec(7L, "2025-12-12", "17:30",
+                new JsonDtos.MedDispatchRec.Requirements(2.0, null, null, null), delivery);
+            DeliveryPathResponse response = pathService.calculateDeliveryPath(Collections.singletonList(late));
+
+            assertThat(response.dronePaths()).isEmpty();
+            assertThat(response.unscheduledDispatches()).containsExactly(7L);
+            assertThat(response.totalCost()).isZero();
+        }
+
+        @Test
+        @DisplayName("With scheduling off, the default, responses keep their old shape and every trip is flown")
+        void schedulingOffKeepsOldContract() throws Exception {
+            doReturn(false).when(fleetScheduler).isEnabled();
+            Position start = testServicePoint.location();
+            Position delivery = new Position(-3.19, 55.945);
+            setupMocksForDrone("test-drone-1", testDrone, start, delivery, 5, 4);
+
+            JsonDtos.MedDispatchRec late = new JsonDtos.MedDispatchRec(7L, "2025-12-12", "17:30",
+                new JsonDtos.MedDispatchRec.Requirements(2.0, null, null, null), delivery);
+            DeliveryPathResponse response = pathService.calculateDeliveryPath(Collections.singletonList(late));
+
+            assertThat(response.dronePaths()).singleElement()
+                .satisfies(dp -> assertThat(dp.departure()).isNull());
+            assertThat(response.unscheduledDispatches()).isEmpty();
+            JsonNode json = new ObjectMapper().valueToTree(response);
+            assertThat(json.fieldNames()).toIterable().containsExactly("totalCost", "totalMoves", "dronePaths");
+            assertThat(json.get("dronePaths").get(0).fieldNames()).toIterable().containsExactly("droneId", "deliveries");
+        }
+
+        @Test
+        @DisplayName("Each trip is streamed as soon as it is scheduled, before the rest of the day is planned")
+        void tripsStreamedAsTheyArePlanned() {
+            Position start = testServicePoint.location();
+            Position first = new Position(-3.19, 55.945);
+            Position second = new Position(-3.18, 55.946);
+            // no drone can take both, so the day is two single trips
+            when(droneService.findAvailableDronesForDispatches(anyList(), any(PlanningContext.class)))
+                .thenAnswer(inv -> inv.<List<?>>getArgument(0).size() > 1 ? List.of() : List.of("test-drone-1"));
+            when(pathfinder.findPath(any(Position.class), any(Position.class), anyList()))
+                .thenAnswer(inv -> createPath(inv.getArgument(0), 4));
+
+            List<Integer> searchesBeforeTrip = new ArrayList<>();
+            PlanningListener listener = new PlanningListener() {
+                @Override
+                public void onTripPlanned(DeliveryPathResponse.DronePath dronePath) {
+                    searchesBeforeTrip.add(mockingDetails(pathfinder).getInvocations().size());
+                }
+            };
+            DeliveryPathSummary summary = pathService.streamDeliveryPath(
+                List.of(createDispatch(1L, 2.0, first), createDispatch(2L, 2.0, second)), PlanningMode.GREEDY, listener);
+
+            // the first trip went out after its own out-and-back search, before the second trip was pathed
+            assertThat(searchesBeforeTrip).hasSize(2);
+            assertThat(searchesBeforeTrip.get(0)).isEqualTo(2);
+            assertThat(searchesBeforeTrip.get(1)).isGreaterThan(2);
+            assertThat(summary.dronePathCount()).isEqualTo(2);
+        }
+    }
+
     // ==== HELPER METHODS ====
     
     /**
@@ -286,12 +423,9 @@ class PathServiceImplUnitTest {
                                      Position start, Position delivery, 
                                      int pathThereSize, int pathBackSize) {
         // Mock drone service to return this drone as available
-        when(droneService.findAvailableDronesForDispatches(anyList()))
+        when(droneService.findAvailableDronesForDispatches(anyList(), any(PlanningContext.class)))
             .thenReturn(List.of(droneId));
         
-        when(droneService.findDroneDetailsById(droneId))
-            .thenReturn(Optional.of(drone));
-        
         // Mock pathfinder to return paths of specified size
         List<Position> pathThere = createPath(start, pathThereSize);
         List<Position> pathBack = createPath(delivery, pathBackSize);
@@ -0,0 +1,143 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PlanCacheTest {
+
+    private static final List<MedDispatchRec> BATCH = List.of(dispatch(1L, null), dispatch(2L, true));
+
+    private final PathService pathService = mock(PathService.class);
+    private final IlpRestClient ilpRestClient = mock(IlpRestClient.class);
+    private PlanCache planCache;
+
+    @BeforeEach
+    void setUp() {
+        planCache = new PlanCache(pathService, ilpRestClient, true, Duration.ofMinutes(5), 10, Duration.ofHours(1), 10);
+        when(ilpRestClient.snapshot()).thenReturn(snapshot(1));
+    }
+
+    @Test
+    @DisplayName("Concurrent identical batches share one calculation")
+    void concurrentRequestsAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DeliveryPathResponse plan = new DeliveryPathResponse(1.0, 10, List.of());
+        when(pathService.calculateDeliveryPathFrom(any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return plan;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DeliveryPathResponse>> results = List.of(
+                    executor.submit(() -> planCache.plan(BATCH, PlanningMode.GREEDY, null)),
+                    executor.submit(() -> planCache.plan(BATCH, PlanningMode.GREEDY, null)),
+                    executor.submit(() -> planCache.plan(BATCH, PlanningMode.GREEDY, null)));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<DeliveryPathResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(plan);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(pathService, times(1)).calculateDeliveryPathFrom(any(), any(), any());
+        assertThat(planCache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A change in reference data misses the cache")
+    void newReferenceDataVersionRecomputes() {
+        when(pathService.calculateDeliveryPathFrom(any(), any(), any())).thenReturn(new DeliveryPathResponse(1.0, 10, List.of()));
+
+        planCache.plan(BATCH, PlanningMode.GREEDY, null);
+        planCache.plan(BATCH, PlanningMode.GREEDY, null);
+        when(ilpRestClient.snapshot()).thenReturn(snapshot(2));
+        planCache.plan(BATCH, PlanningMode.GREEDY, null);
+
+        verify(pathService, times(2)).calculateDeliveryPathFrom(any(), any(), any());
+        assertThat(planCache.hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("An idempotency key replays its plan and rejects a different batch")
+    void idempotencyKeyIsHonoured() {
+        DeliveryPathResponse plan = new DeliveryPathResponse(1.0, 10, List.of());
+        when(pathService.calculateDeliveryPathFrom(any(), any(), any())).thenReturn(plan);
+
+        planCache.plan(BATCH, PlanningMode.GREEDY, "retry-1");
+        when(ilpRestClient.snapshot()).thenReturn(snapshot(2));
+
+        assertThat(planCache.plan(BATCH, PlanningMode.GREEDY, "retry-1")).isSameAs(plan);
+        assertThatThrownBy(() -> planCache.plan(BATCH.subList(0, 1), PlanningMode.GREEDY, "retry-1"))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        verify(pathService, times(1)).calculateDeliveryPathFrom(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("A concurrent request reusing an idempotency key for another batch is rejected, not stored over the first")
+    void idempotencyKeyIsReservedAtomically() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DeliveryPathResponse plan = new DeliveryPathResponse(1.0, 10, List.of());
+        when(pathService.calculateDeliveryPathFrom(any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return plan;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<DeliveryPathResponse> first = executor.submit(() -> planCache.plan(BATCH, PlanningMode.GREEDY, "retry-1"));
+            Thread.sleep(100);
+            assertThatThrownBy(() -> planCache.plan(BATCH.subList(0, 1), PlanningMode.GREEDY, "retry-1"))
+                    .isInstanceOf(IdempotencyKeyReusedException.class);
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(plan);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(planCache.plan(BATCH, PlanningMode.GREEDY, "retry-1")).isSameAs(plan);
+        verify(pathService, times(1)).calculateDeliveryPathFrom(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Canonical hash treats a missing flag as false but keeps mode and order")
+    void batchHashIsCanonical() {
+        String hash = PlanCache.batchHash(BATCH, PlanningMode.GREEDY);
+
+        assertThat(PlanCache.batchHash(List.of(dispatch(1L, false), dispatch(2L, true)), PlanningMode.GREEDY)).isEqualTo(hash);
+        assertThat(PlanCache.batchHash(BATCH, PlanningMode.VRP)).isNotEqualTo(hash);
+        assertThat(PlanCache.batchHash(List.of(BATCH.get(1), BATCH.get(0)), PlanningMode.GREEDY)).isNotEqualTo(hash);
+    }
+
+    private static ReferenceDataSnapshot snapshot(long version) {
+        return ReferenceDataSnapshot.of(new Drone[0], new ServicePoint[0], new DroneForServicePoint[0], new RestrictedArea[0])
+                .withVersion(version, 1, Instant.now());
+    }
+
+    private static MedDispatchRec dispatch(long id, Boolean cooling) {
+        return new MedDispatchRec(id, "2025-12-12", "10:00", new MedDispatchRec.Requirements(1.0, cooling, null, null),
+                new Position(-3.188, 55.945));
+    }
+}
@@ -0,0 +1,190 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.dto.*;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanEditorTest {
+
+    private static final Position BASE = new Position(-3.186874, 55.944494);
+
+    private final ExecutorService planningExecutor = Executors.newFixedThreadPool(2);
+    private final OneBaseClient client = new OneBaseClient();
+    private PathServiceImpl planner;
+
+    @BeforeEach
+    void setUp() {
+        GeometryService geometryService = new GeometryServiceImpl();
+        planner = new PathServiceImpl(new DroneServiceImpl(client, geometryService), geometryService, client,
+                new StraightLinePathfinder(geometryService), new VrpSolver(geometryService),
+                new FleetScheduler(true, 1.0, 300), planningExecutor, PlanningMetrics.standalone());
+    }
+
+    @AfterEach
+    void tearDown() {
+        planningExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("A nearby dispatch is inserted into the existing trip")
+    void insertJoinsNearbyTrip() {
+        EditablePlan plan = planner.createPlan(List.of(dispatch(1L, -3.1880, 55.9450)), PlanningMode.GREEDY);
+        DeliveryPathResponse.DronePath original = plan.current().dronePaths().get(0);
+
+        PlanDiff diff = planner.insertDispatch(plan, dispatch(2L, -3.1881, 55.9451));
+
+        assertThat(plan.current().dronePaths()).hasSize(1);
+        assertThat(deliveredIds(plan.current())).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(diff.removedPaths()).containsExactly(original);
+        assertThat(diff.addedPaths()).hasSize(1);
+        assertThat(diff.unplannedDispatches()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Removing a dispatch repairs its trip and leaves other trips alone")
+    void removeRepairsOnlyItsTrip() {
+        EditablePlan plan = planner.createPlan(List.of(
+                dispatch(1L, -3.1880, 55.9450),
+                dispatch(2L, -3.1881, 55.9451)), PlanningMode.GREEDY);
+
+        PlanDiff diff = planner.removeDispatch(plan, 2L);
+
+        assertThat(deliveredIds(plan.current())).containsExactly(1L);
+        assertThat(diff.removedPaths()).hasSize(1);
+        assertThat(diff.addedPaths()).hasSize(1);
+
+        diff = planner.removeDispatch(plan, 1L);
+        assertThat(plan.current().dronePaths()).isEmpty();
+        assertThat(diff.addedPaths()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Edits reject duplicate and unknown dispatch ids")
+    void invalidEditsAreRejected() {
+        EditablePlan plan = planner.createPlan(List.of(dispatch(1L, -3.1880, 55.9450)), PlanningMode.GREEDY);
+
+        assertThatThrownBy(() -> planner.insertDispatch(plan, dispatch(1L, -3.1881, 55.9451)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.removeDispatch(plan, 99L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("An insert that fails, on a bad date or with no drone to fly it, leaves the dispatch out of the plan")
+    void failedInsertIsNotRecorded() {
+        EditablePlan plan = planner.createPlan(List.of(dispatch(1L, -3.1880, 55.9450)), PlanningMode.GREEDY);
+        MedDispatchRec badDate = new MedDispatchRec(2L, "12/12/2025", "10:00",
+                new MedDispatchRec.Requirements(1.0, null, null, null), new Position(-3.1881, 55.9451));
+        MedDispatchRec tooHeavy = new MedDispatchRec(3L, "2025-12-12", "10:00",
+                new MedDispatchRec.Requirements(50.0, null, null, null), new Position(-3.1881, 55.9451));
+
+        assertThatThrownBy(() -> planner.insertDispatch(plan, badDate)).isInstanceOf(DateTimeParseException.class);
+        PlanDiff diff = planner.insertDispatch(plan, tooHeavy);
+
+        assertThat(diff.addedPaths()).isEmpty();
+        assertThat(diff.removedPaths()).isEmpty();
+        assertThat(diff.unplannedDispatches()).containsExactly(3L);
+        // neither id is taken, and later edits don't report them as unplanned
+        assertThat(planner.insertDispatch(plan, dispatch(2L, -3.1881, 55.9451)).unplannedDispatches()).isEmpty();
+        assertThatThrownBy(() -> planner.removeDispatch(plan, 3L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Edits are planned against the current reference data, not the snapshot the plan was created with")
+    void editsSeeNewReferenceData() {
+        EditablePlan plan = planner.createPlan(List.of(dispatch(1L, -3.1880, 55.9450)), PlanningMode.GREEDY);
+
+        client.availability = List.of();
+        PlanDiff diff = planner.insertDispatch(plan, dispatch(2L, -3.1881, 55.9451));
+
+        // no drone is available any more, so the new dispatch can't join or start a trip
+        assertThat(diff.unplannedDispatches()).containsExactly(2L);
+        assertThat(deliveredIds(plan.current())).containsExactly(1L);
+    }
+
+    private static List<Long> deliveredIds(DeliveryPathResponse response) {
+        return response.dronePaths().stream()
+                .flatMap(p -> p.deliveries().stream())
+                .map(DeliveryPathResponse.Delivery::deliveryId)
+                .toList();
+    }
+
+    private static MedDispatchRec dispatch(long id, double lng, double lat) {
+        return new MedDispatchRec(id, "2025-12-12", "10:00", new MedDispatchRec.Requirements(1.0, null, null, null),
+                new Position(lng, lat));
+    }
+
+    /**
+     * Two identical drones at one service point, available all week unless a test changes that.
+     */
+    private static final class OneBaseClient implements IlpRestClient {
+        private final Drone[] drones = {
+                new Drone("1", "Drone 1", new Drone.Capability(false, false, 8.0, 2000, 0.01, 1.0, 1.0)),
+                new Drone("2", "Drone 2", new Drone.Capability(false, false, 8.0, 2000, 0.01, 1.0, 1.0))
+        };
+
+        @Override
+        public Drone[] getDrones() {
+            return drones;
+        }
+
+        @Override
+        public ServicePoint[] getServicePoints() {
+            return new ServicePoint[]{new ServicePoint(1L, "Appleton Tower", BASE)};
+        }
+
+        private List<DroneForServicePoint.Availability> availability = Arrays.stream(DayOfWeek.values())
+                .map(day -> new DroneForServicePoint.Availability(day.name(), "00:00", "23:59"))
+                .toList();
+
+        @Override
+        public DroneForServicePoint[] getDronesForServicePoints() {
+            return new DroneForServicePoint[]{new DroneForServicePoint(1L, Arrays.stream(drones)
+                    .map(d -> new DroneForServicePoint.DroneAvailability(d.id(), availability)).toList())};
+        }
+
+        @Override
+        public RestrictedArea[] getRestrictedAreas() {
+            return new RestrictedArea[0];
+        }
+    }
+
+    private static final class StraightLinePathfinder extends AStarPathfinder {
+        private final GeometryService geometryService;
+
+        StraightLinePathfinder(GeometryService geometryService) {
+            super(geometryService);
+            this.geometryService = geometryService;
+        }
+
+        @Override
+        public List<Position> findPath(Position start, Position end, List<Region> noFlyZones) {
+            List<Position> path = new ArrayList<>();
+            path.add(start);
+            Position current = start;
+            while (!geometryService.checkPointsClose(current, end)) {
+                double angle = Math.atan2(end.lat() - current.lat(), end.lng() - current.lng());
+                current = new Position(current.lng() + 0.00015 * Math.cos(angle), current.lat() + 0.00015 * Math.sin(angle));
+                path.add(current);
+            }
+            return path;
+        }
+    }
+}
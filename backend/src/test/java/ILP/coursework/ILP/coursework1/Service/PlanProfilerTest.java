@@ -0,0 +1,48 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.ReferenceDataSnapshot;
+import ILP.coursework.ILP.coursework1.dto.*;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanProfilerTest {
+
+    private static final Position START = new Position(-3.186874, 55.944494);
+    private static final Position END = new Position(-3.1875, 55.9449);
+
+    @Test
+    @DisplayName("Searches, cache hits and rejected subsets end up in the profile")
+    void collectsProfile() {
+        SegmentCache cache = new SegmentCache(new AStarPathfinder(new GeometryServiceImpl()), List.of());
+        PlanProfiler profiler = new PlanProfiler();
+        Instant startedAt = Instant.now();
+
+        profiler.lookup(() -> cache.path(START, END));
+        profiler.lookup(() -> cache.path(START, END));
+        // lookups outside the profiler are not counted
+        cache.path(END, START);
+        profiler.subsetRejected();
+        PlanningContext context = PlanningContext.of(ReferenceDataSnapshot.of(
+                new Drone[0], new ServicePoint[0], new DroneForServicePoint[0], new RestrictedArea[0]));
+        profiler.complete(5_000_000, phase -> 1_000_000L, context, startedAt);
+
+        PlanProfile profile = profiler.profile();
+        assertThat(profile.totalMillis()).isEqualTo(5.0);
+        assertThat(profile.phaseMillis()).containsEntry("pathfinding", 1.0).hasSize(PlanningMetrics.Phase.values().length);
+        assertThat(profile.segmentMisses()).isEqualTo(1);
+        assertThat(profile.segmentHits()).isEqualTo(1);
+        assertThat(profile.rejectedSubsets()).isEqualTo(1);
+        assertThat(profile.searches()).singleElement().satisfies(search -> {
+            assertThat(search.start()).isEqualTo(START);
+            assertThat(search.outcome()).isEqualTo("found");
+            assertThat(search.expandedNodes()).isPositive();
+        });
+        assertThat(profile.referenceData().fetchedForRequest()).isTrue();
+    }
+}
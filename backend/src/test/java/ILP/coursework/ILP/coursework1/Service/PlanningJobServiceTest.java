@@ -0,0 +1,119 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.DeliveryPathResponse;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.PlanningJobStatus;
+import ILP.coursework.ILP.coursework1.dto.PlanningJobStatus.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlanningJobServiceTest {
+
+    private static final List<MedDispatchRec> DISPATCHES = List.of(
+            new MedDispatchRec(1L, "2025-12-12", "10:00", new MedDispatchRec.Requirements(1.0, null, null, null),
+                    new Position(-3.188, 55.945)),
+            new MedDispatchRec(2L, "2025-12-12", "10:30", new MedDispatchRec.Requirements(1.0, null, null, null),
+                    new Position(-3.189, 55.946)));
+
+    private final PathService pathService = mock(PathService.class);
+    private ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A finished job reports full progress and the plan")
+    void completedJobReturnsResult() throws Exception {
+        DeliveryPathResponse plan = new DeliveryPathResponse(12.5, 80, List.of());
+        when(pathService.calculateDeliveryPath(eq(DISPATCHES), eq(PlanningMode.GREEDY), any()))
+                .thenAnswer(inv -> {
+                    inv.getArgument(2, PlanningListener.class).onProgress(2, 2);
+                    return plan;
+                });
+        PlanningJobService service = new PlanningJobService(pathService, executor, Duration.ofMinutes(10), 10);
+
+        PlanningJobStatus submitted = service.submit(DISPATCHES, PlanningMode.GREEDY);
+        awaitWorkers();
+
+        assertThat(submitted.status()).isEqualTo(State.QUEUED);
+        assertThat(service.getStatus(submitted.jobId())).hasValueSatisfying(status -> {
+            assertThat(status.status()).isEqualTo(State.COMPLETED);
+            assertThat(status.dispatchesPlanned()).isEqualTo(2);
+            assertThat(status.totalDispatches()).isEqualTo(2);
+            assertThat(status.result()).isEqualTo(plan);
+        });
+    }
+
+    @Test
+    @DisplayName("A job that throws is reported as failed")
+    void failedJobReportsError() throws Exception {
+        when(pathService.calculateDeliveryPath(any(), any(), any())).thenThrow(new IllegalStateException("ILP down"));
+        PlanningJobService service = new PlanningJobService(pathService, executor, Duration.ofMinutes(10), 10);
+
+        String jobId = service.submit(DISPATCHES, PlanningMode.GREEDY).jobId();
+        awaitWorkers();
+
+        assertThat(service.getStatus(jobId)).hasValueSatisfying(status -> {
+            assertThat(status.status()).isEqualTo(State.FAILED);
+            assertThat(status.result()).isNull();
+            assertThat(status.error()).isEqualTo("IllegalStateException");
+        });
+    }
+
+    @Test
+    @DisplayName("Jobs are rejected once every worker is busy and the queue is full")
+    void fullQueueRejectsJobs() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(pathService.calculateDeliveryPath(any(), any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new DeliveryPathResponse(0, 0, List.of());
+        });
+        PlanningJobService service = new PlanningJobService(pathService, executor, Duration.ofMinutes(10), 10);
+
+        service.submit(DISPATCHES, PlanningMode.GREEDY); // running
+        service.submit(DISPATCHES, PlanningMode.GREEDY); // queued
+        try {
+            assertThatThrownBy(() -> service.submit(DISPATCHES, PlanningMode.GREEDY))
+                    .isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Only the most recent finished jobs are retained")
+    void retentionCapDropsOldestJobs() throws Exception {
+        when(pathService.calculateDeliveryPath(any(), any(), any())).thenReturn(new DeliveryPathResponse(0, 0, List.of()));
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        PlanningJobService service = new PlanningJobService(pathService, executor, Duration.ofMinutes(10), 2);
+
+        String first = service.submit(DISPATCHES, PlanningMode.GREEDY).jobId();
+        String second = service.submit(DISPATCHES, PlanningMode.GREEDY).jobId();
+        String third = service.submit(DISPATCHES, PlanningMode.GREEDY).jobId();
+        awaitWorkers();
+
+        assertThat(service.getStatus(first)).isEmpty();
+        assertThat(service.getStatus(second)).isPresent();
+        assertThat(service.getStatus(third)).isPresent();
+    }
+
+    private void awaitWorkers() throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
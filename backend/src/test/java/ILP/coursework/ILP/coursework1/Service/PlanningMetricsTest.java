@@ -0,0 +1,46 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanningMetricsTest {
+
+    private static final Position START = new Position(-3.186874, 55.944494);
+    private static final Position END = new Position(-3.1875, 55.9449);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PlanningMetrics metrics = new PlanningMetrics(registry);
+
+    @Test
+    @DisplayName("Batch sizes are bucketed into a small fixed set of tag values")
+    void batchBuckets() {
+        assertThat(PlanningMetrics.batchBucket(0)).isEqualTo("0");
+        assertThat(PlanningMetrics.batchBucket(1)).isEqualTo("1");
+        assertThat(PlanningMetrics.batchBucket(2)).isEqualTo("2-5");
+        assertThat(PlanningMetrics.batchBucket(10)).isEqualTo("6-10");
+        assertThat(PlanningMetrics.batchBucket(250)).isEqualTo("101-250");
+        assertThat(PlanningMetrics.batchBucket(5000)).isEqualTo("251+");
+    }
+
+    @Test
+    @DisplayName("A* searches and segment cache lookups are counted")
+    void searchesAreRecorded() {
+        AStarPathfinder pathfinder = new AStarPathfinder(new GeometryServiceImpl(), metrics);
+        SegmentCache cache = new SegmentCache(pathfinder, List.<Region>of(), metrics);
+
+        cache.path(START, END);
+        cache.path(START, END);
+
+        assertThat(registry.get("ilp.astar.search").tag("outcome", "found").timer().count()).isEqualTo(1);
+        assertThat(registry.get("ilp.astar.expanded").summary().totalAmount()).isPositive();
+        assertThat(registry.get("ilp.segment.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("ilp.segment.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,163 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.client.IlpRestClient;
+import ILP.coursework.ILP.coursework1.dto.*;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the greedy loop against the VRP solver on synthetic days.
+ * Excluded from the normal build, run with: mvn test -Dgroups=benchmark -DexcludedGroups=
+ */
+@Tag("benchmark")
+class PlanningModeBenchmarkTest {
+
+    private static final double MOVE_DISTANCE = 0.00015;
+
+    private final ExecutorService planningExecutor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        planningExecutor.shutdown();
+    }
+
+    @ParameterizedTest(name = "{0} dispatches")
+    @ValueSource(ints = {100, 250, 500})
+    @DisplayName("VRP mode should not cost more than the greedy loop on a synthetic day")
+    void compareModes(int dispatchCount) {
+        GeometryService geometryService = new GeometryServiceImpl();
+        IlpRestClient client = new SyntheticIlpClient();
+        PathService pathService = new PathServiceImpl(
+                new DroneServiceImpl(client, geometryService), geometryService, client,
+                new StraightLinePathfinder(geometryService), new VrpSolver(geometryService),
+                new FleetScheduler(true, 1.0, 300), planningExecutor, PlanningMetrics.standalone());
+        List<MedDispatchRec> dispatches = syntheticDay(dispatchCount, new Random(42));
+
+        long greedyStart = System.nanoTime();
+        DeliveryPathResponse greedy = pathService.calculateDeliveryPath(dispatches, PlanningMode.GREEDY);
+        long greedyMillis = (System.nanoTime() - greedyStart) / 1_000_000;
+
+        long vrpStart = System.nanoTime();
+        DeliveryPathResponse vrp = pathService.calculateDeliveryPath(dispatches, PlanningMode.VRP);
+        long vrpMillis = (System.nanoTime() - vrpStart) / 1_000_000;
+
+        int greedyDelivered = deliveredIds(greedy).size();
+        int vrpDelivered = deliveredIds(vrp).size();
+        System.out.printf("%d dispatches | greedy: %d delivered in %d trips, cost %.2f, %d ms | vrp: %d delivered in %d trips, cost %.2f, %d ms%n",
+                dispatchCount, greedyDelivered, greedy.dronePaths().size(), greedy.totalCost(), greedyMillis,
+                vrpDelivered, vrp.dronePaths().size(), vrp.totalCost(), vrpMillis);
+
+        // the fleet timeline can turn trips away late in the day, so compare cost per delivered dispatch
+        assertThat(vrpDelivered).isGreaterThanOrEqualTo(greedyDelivered);
+        assertThat(vrp.totalCost() / vrpDelivered).isLessThanOrEqualTo(greedy.totalCost() / greedyDelivered);
+    }
+
+    private Set<Long> deliveredIds(DeliveryPathResponse response) {
+        Set<Long> ids = new HashSet<>();
+        response.dronePaths().forEach(dp -> dp.deliveries().forEach(d -> ids.add(d.deliveryId())));
+        return ids;
+    }
+
+    private List<MedDispatchRec> syntheticDay(int count, Random random) {
+        List<MedDispatchRec> dispatches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double lng = -3.20 + random.nextDouble() * 0.03;
+            double lat = 55.935 + random.nextDouble() * 0.02;
+            double capacity = 0.5 + random.nextInt(4);
+            Boolean cooling = random.nextInt(5) == 0 ? Boolean.TRUE : null;
+            String time = String.format("%02d:%02d", 9 + random.nextInt(8), random.nextInt(60));
+            dispatches.add(new MedDispatchRec((long) i + 1, "2025-12-12", time,
+                    new MedDispatchRec.Requirements(capacity, cooling, null, null),
+                    new Position(lng, lat)));
+        }
+        return dispatches;
+    }
+
+    /**
+     * Fleet of 12 drones split across two service points, available all week.
+     */
+    private static final class SyntheticIlpClient implements IlpRestClient {
+        private final Drone[] drones;
+        private final ServicePoint[] servicePoints = {
+                new ServicePoint(1L, "Appleton Tower", new Position(-3.186874, 55.944494)),
+                new ServicePoint(2L, "Ocean Terminal", new Position(-3.17732, 55.98186))
+        };
+        private final DroneForServicePoint[] availabilities;
+
+        SyntheticIlpClient() {
+            List<DroneForServicePoint.Availability> allWeek = Arrays.stream(java.time.DayOfWeek.values())
+                    .map(day -> new DroneForServicePoint.Availability(day.name(), "00:00", "23:59"))
+                    .toList();
+            drones = new Drone[12];
+            List<DroneForServicePoint.DroneAvailability> first = new ArrayList<>();
+            List<DroneForServicePoint.DroneAvailability> second = new ArrayList<>();
+            for (int i = 0; i < drones.length; i++) {
+                drones[i] = new Drone(String.valueOf(i + 1), "Drone " + (i + 1), new Drone.Capability(
+                        i % 3 == 0, i % 4 == 0, 4.0 + (i % 4) * 4, 2000 + (i % 3) * 500,
+                        0.01 + (i % 5) * 0.01, 1.0 + (i % 2), 1.0 + (i % 3)));
+                (i % 2 == 0 ? first : second).add(new DroneForServicePoint.DroneAvailability(drones[i].id(), allWeek));
+            }
+            availabilities = new DroneForServicePoint[]{
+                    new DroneForServicePoint(1L, first),
+                    new DroneForServicePoint(2L, second)
+            };
+        }
+
+        @Override
+        public Drone[] getDrones() {
+            return drones;
+        }
+
+        @Override
+        public ServicePoint[] getServicePoints() {
+            return servicePoints;
+        }
+
+        @Override
+        public DroneForServicePoint[] getDronesForServicePoints() {
+            return availabilities;
+        }
+
+        @Override
+        public RestrictedArea[] getRestrictedAreas() {
+            return new RestrictedArea[0];
+        }
+    }
+
+    /**
+     * Stands in for A* in open air so the benchmark measures the planners, not the search.
+     */
+    private static final class StraightLinePathfinder extends AStarPathfinder {
+        private final GeometryService geometryService;
+
+        StraightLinePathfinder(GeometryService geometryService) {
+            super(geometryService);
+            this.geometryService = geometryService;
+        }
+
+        @Override
+        public List<Position> findPath(Position start, Position end, List<JsonDtos.Region> noFlyZones) {
+            List<Position> path = new ArrayList<>();
+            path.add(start);
+            Position current = start;
+            while (!geometryService.checkPointsClose(current, end)) {
+                double angle = Math.atan2(end.lat() - current.lat(), end.lng() - current.lng());
+                current = new Position(current.lng() + MOVE_DISTANCE * Math.cos(angle),
+                        current.lat() + MOVE_DISTANCE * Math.sin(angle));
+                path.add(current);
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Region;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentCacheTest {
+
+    private static final Position START = new Position(-3.186874, 55.944494);
+    private static final Position END = new Position(-3.1907, 55.9494);
+
+    @Test
+    @DisplayName("Concurrent requests for the same segment run A* only once")
+    void concurrentRequestsShareOneSearch() throws Exception {
+        AtomicInteger searches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AStarPathfinder slowPathfinder = new AStarPathfinder(new GeometryServiceImpl()) {
+            @Override
+            public List<Position> findPath(Position start, Position end, List<Region> zones) {
+                searches.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(start, end);
+            }
+        };
+        SegmentCache cache = new SegmentCache(slowPathfinder, List.of());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Position>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.path(START, END)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<List<Position>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly(START, END);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(searches.get()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Failed searches are not cached")
+    void failuresAreRetried() {
+        AtomicInteger searches = new AtomicInteger();
+        AStarPathfinder flakyPathfinder = new AStarPathfinder(new GeometryServiceImpl()) {
+            @Override
+            public List<Position> findPath(Position start, Position end, List<Region> zones) {
+                if (searches.incrementAndGet() == 1) {
+                    throw new IllegalStateException("boom");
+                }
+                return List.of(start, end);
+            }
+        };
+        SegmentCache cache = new SegmentCache(flakyPathfinder, List.of());
+
+        try {
+            cache.path(START, END);
+        } catch (IllegalStateException expected) {
+            // first search fails
+        }
+
+        assertThat(cache.path(START, END)).containsExactly(START, END);
+        assertThat(searches.get()).isEqualTo(2);
+    }
+}
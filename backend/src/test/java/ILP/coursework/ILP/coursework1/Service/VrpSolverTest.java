@@ -0,0 +1,109 @@
+package ILP.coursework.ILP.coursework1.Service;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VrpSolverTest {
+
+    private static final ServicePoint APPLETON = new ServicePoint(1L, "Appleton Tower", new Position(-3.186874, 55.944494));
+    private static final AvailabilityIndex.Schedule FRIDAY = new AvailabilityIndex(List.of(
+            List.of(new DroneForServicePoint.Availability("FRIDAY", "09:00", "17:00")))).schedule(0);
+
+    private VrpSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new VrpSolver(new GeometryServiceImpl());
+    }
+
+    @Test
+    @DisplayName("Nearby dispatches are merged into a single route when capacity allows")
+    void mergesNearbyDispatches() {
+        VrpSolver.Vehicle drone = vehicle("d1", false, 10.0, 0.05);
+        List<MedDispatchRec> dispatches = List.of(
+                dispatch(1L, 2.0, false, null, -3.1880, 55.9450),
+                dispatch(2L, 2.0, false, null, -3.1885, 55.9452),
+                dispatch(3L, 2.0, false, null, -3.1890, 55.9455));
+
+        VrpSolver.Solution solution = solver.solve(dispatches, List.of(drone));
+
+        assertThat(solution.unassigned()).isEmpty();
+        assertThat(solution.routes()).hasSize(1);
+        assertThat(solution.routes().get(0).dispatches()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Routes are split when the combined capacity exceeds the drone capacity")
+    void respectsCapacity() {
+        VrpSolver.Vehicle drone = vehicle("d1", false, 4.0, 0.05);
+        List<MedDispatchRec> dispatches = List.of(
+                dispatch(1L, 3.0, false, null, -3.1880, 55.9450),
+                dispatch(2L, 3.0, false, null, -3.1885, 55.9452));
+
+        VrpSolver.Solution solution = solver.solve(dispatches, List.of(drone));
+
+        assertThat(solution.routes()).hasSize(2);
+        assertThat(solution.routes()).allSatisfy(route -> assertThat(route.dispatches()).hasSize(1));
+    }
+
+    @Test
+    @DisplayName("Cooling dispatches only go to drones with cooling")
+    void respectsCooling() {
+        VrpSolver.Vehicle plain = vehicle("plain", false, 10.0, 0.01);
+        VrpSolver.Vehicle cooled = vehicle("cooled", true, 10.0, 0.05);
+        List<MedDispatchRec> dispatches = List.of(dispatch(1L, 1.0, true, null, -3.1880, 55.9450));
+
+        VrpSolver.Solution solution = solver.solve(dispatches, List.of(plain, cooled));
+
+        assertThat(solution.routes()).singleElement()
+                .satisfies(route -> assertThat(route.vehicle().drone().id()).isEqualTo("cooled"));
+    }
+
+    @Test
+    @DisplayName("The cheapest eligible drone is chosen for a route")
+    void choosesCheapestDrone() {
+        VrpSolver.Vehicle expensive = vehicle("expensive", false, 10.0, 0.10);
+        VrpSolver.Vehicle cheap = vehicle("cheap", false, 10.0, 0.01);
+        List<MedDispatchRec> dispatches = List.of(dispatch(1L, 1.0, false, null, -3.1880, 55.9450));
+
+        VrpSolver.Solution solution = solver.solve(dispatches, List.of(expensive, cheap));
+
+        assertThat(solution.routes()).singleElement()
+                .satisfies(route -> assertThat(route.vehicle().drone().id()).isEqualTo("cheap"));
+    }
+
+    @Test
+    @DisplayName("Dispatches with no feasible drone are returned as unassigned")
+    void reportsUnassigned() {
+        VrpSolver.Vehicle drone = vehicle("d1", false, 10.0, 0.05);
+        List<MedDispatchRec> dispatches = List.of(
+                dispatch(1L, 1.0, false, 0.01, -3.1880, 55.9450), // maxCost below costInitial + costFinal
+                dispatch(2L, 20.0, false, null, -3.1885, 55.9452));
+
+        VrpSolver.Solution solution = solver.solve(dispatches, List.of(drone));
+
+        assertThat(solution.routes()).isEmpty();
+        assertThat(solution.unassigned()).extracting(MedDispatchRec::id).containsExactly(1L, 2L);
+    }
+
+    private VrpSolver.Vehicle vehicle(String id, boolean cooling, double capacity, double costPerMove) {
+        Drone drone = new Drone(id, id, new Drone.Capability(cooling, false, capacity, 2000, costPerMove, 1.0, 1.0));
+        return new VrpSolver.Vehicle(drone, APPLETON, FRIDAY);
+    }
+
+    private MedDispatchRec dispatch(Long id, double capacity, boolean cooling, Double maxCost, double lng, double lat) {
+        return new MedDispatchRec(id, "2025-12-12", "14:30",
+                new MedDispatchRec.Requirements(capacity, cooling, null, maxCost),
+                new Position(lng, lat));
+    }
+}
@@ -0,0 +1,219 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingIlpRestClientTest {
+
+    private final CountingUpstream upstream = new CountingUpstream();
+    private final MutableClock clock = new MutableClock();
+    private CachingIlpRestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new CachingIlpRestClient(upstream, true, Duration.ofMinutes(5), Duration.ofHours(1), clock, new InlineExecutor());
+    }
+
+    @Test
+    @DisplayName("Lookups within the TTL are served from one snapshot")
+    void lookupsShareOneFetch() {
+        client.getDrones();
+        client.getServicePoints();
+        client.getDronesForServicePoints();
+        client.getRestrictedAreas();
+
+        assertThat(upstream.fetches.get()).isEqualTo(1);
+        assertThat(client.referenceDataVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A stale snapshot is refreshed, and the versions only change with the content")
+    void staleSnapshotIsRevalidated() {
+        ReferenceDataSnapshot first = client.snapshot();
+
+        clock.advance(Duration.ofMinutes(6));
+        client.snapshot();
+        assertThat(upstream.fetches.get()).isEqualTo(2);
+        assertThat(client.snapshot().version()).isEqualTo(1);
+        assertThat(client.snapshot().drones()).isSameAs(first.drones());
+
+        upstream.droneName = "Renamed";
+        clock.advance(Duration.ofMinutes(6));
+        client.snapshot();
+        assertThat(client.snapshot().version()).isEqualTo(2);
+        assertThat(client.snapshot().zonesVersion()).isEqualTo(1);
+        assertThat(client.getDrones()[0].name()).isEqualTo("Renamed");
+    }
+
+    @Test
+    @DisplayName("Upstream failures serve the last good snapshot, but fail when there is none")
+    void failuresServeStaleData() {
+        upstream.failing = true;
+        assertThatThrownBy(() -> client.getDrones()).isInstanceOf(IllegalStateException.class);
+
+        upstream.failing = false;
+        ReferenceDataSnapshot good = client.snapshot();
+        upstream.failing = true;
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(client.snapshot()).isSameAs(good);
+        clock.advance(Duration.ofHours(2));
+        assertThat(client.snapshot()).isSameAs(good);
+    }
+
+    @Test
+    @DisplayName("Callers waiting past max-stale share one failed attempt instead of each trying upstream")
+    void waitersShareOneFailedAttempt() throws Exception {
+        ReferenceDataSnapshot good = client.snapshot();
+        upstream.failing = true;
+        upstream.delayMillis = 300;
+        clock.advance(Duration.ofHours(2));
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ReferenceDataSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(client::snapshot));
+            }
+            for (Future<ReferenceDataSnapshot> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(good);
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertThat(upstream.fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Staleness is reported while upstream fails and cleared once it recovers")
+    void stalenessFollowsUpstream() {
+        client = new CachingIlpRestClient(upstream, false, Duration.ofMinutes(5), Duration.ofHours(1), clock, new InlineExecutor());
+        ReferenceDataSnapshot good = client.snapshot();
+        assertThat(client.staleness()).isEmpty();
+
+        upstream.failing = true;
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(client.snapshot()).isSameAs(good);
+        assertThat(client.staleness()).contains(Duration.ofMinutes(2));
+
+        upstream.failing = false;
+        client.snapshot();
+        assertThat(client.staleness()).isEmpty();
+    }
+
+    private static final class CountingUpstream implements IlpRestClient {
+        final AtomicInteger fetches = new AtomicInteger();
+        volatile boolean failing;
+        volatile long delayMillis;
+        volatile String droneName = "Drone 1";
+
+        @Override
+        public ReferenceDataSnapshot snapshot() {
+            fetches.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("ILP unavailable");
+            }
+            return IlpRestClient.super.snapshot();
+        }
+
+        @Override
+        public Drone[] getDrones() {
+            return new Drone[]{new Drone("1", droneName, new Drone.Capability(true, false, 4.0, 2000, 0.01, 1.0, 1.0))};
+        }
+
+        @Override
+        public ServicePoint[] getServicePoints() {
+            return new ServicePoint[0];
+        }
+
+        @Override
+        public DroneForServicePoint[] getDronesForServicePoints() {
+            return new DroneForServicePoint[]{new DroneForServicePoint(1L, List.of())};
+        }
+
+        @Override
+        public RestrictedArea[] getRestrictedAreas() {
+            return new RestrictedArea[0];
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-12-12T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    // runs background refreshes on the calling thread so the test can see their effect straight away
+    private static final class InlineExecutor extends AbstractExecutorService {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
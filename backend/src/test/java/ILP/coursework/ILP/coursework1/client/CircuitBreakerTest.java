@@ -0,0 +1,143 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final CircuitBreaker breaker = new CircuitBreaker("/drones",
+            new CircuitBreaker.Settings(10, 4, 0.5, Duration.ofSeconds(30)), clock);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("The circuit opens once the failure rate over the window reaches the threshold")
+    void opensOnFailureRate() {
+        succeed();
+        fail();
+        succeed();
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.CLOSED); // under the minimum calls
+        fail();
+
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(this::succeed)
+                .isInstanceOf(CircuitOpenException.class)
+                .satisfies(e -> assertThat(((CircuitOpenException) e).retryAfter()).isEqualTo(Duration.ofSeconds(30)));
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Old failures slide out of the window")
+    void windowSlides() {
+        succeed();
+        succeed();
+        succeed();
+        fail();
+        for (int i = 0; i < 6; i++) succeed();
+        assertThat(breaker.status().failureRate()).isEqualTo(0.1);
+
+        for (int i = 0; i < 4; i++) succeed();
+        assertThat(breaker.status().failureRate()).isZero();
+        assertThat(breaker.status().calls()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("After the open duration one probe decides whether the circuit closes or opens again")
+    void halfOpenProbe() {
+        for (int i = 0; i < 4; i++) fail();
+
+        clock.advance(Duration.ofSeconds(31));
+        fail();
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.advance(Duration.ofSeconds(31));
+        succeed();
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.status().calls()).isZero();
+    }
+
+    @Test
+    @DisplayName("While the probe is in flight other calls are turned away")
+    void onlyOneProbe() {
+        for (int i = 0; i < 4; i++) fail();
+        clock.advance(Duration.ofSeconds(31));
+
+        String result = breaker.call(() -> {
+            assertThatThrownBy(this::succeed).isInstanceOf(CircuitOpenException.class);
+            return "probe";
+        });
+
+        assertThat(result).isEqualTo("probe");
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Interrupted calls are not counted, and an interrupted probe lets the next caller probe")
+    void interruptedCallsAreNotCounted() {
+        for (int i = 0; i < 3; i++) fail();
+        interrupted();
+        assertThat(breaker.status().calls()).isEqualTo(3);
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail();
+        clock.advance(Duration.ofSeconds(31));
+        interrupted();
+        succeed();
+        assertThat(breaker.status().state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void interrupted() {
+        try {
+            breaker.call(() -> {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Request was interrupted");
+            });
+        } catch (IllegalStateException expected) {
+            assertThat(Thread.interrupted()).isTrue();
+        }
+    }
+
+    private void succeed() {
+        breaker.call(calls::incrementAndGet);
+    }
+
+    private void fail() {
+        try {
+            breaker.call(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("ILP unavailable");
+            });
+        } catch (IllegalStateException expected) {
+            // counted by the breaker
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-12-12T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileIlpRestClientTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("An exported snapshot loads back with the same content")
+    void exportRoundTrip() throws Exception {
+        ReferenceDataSnapshot exported = ReferenceDataSnapshot.of(
+                new Drone[]{new Drone("1", "Drone 1", new Drone.Capability(true, false, 4.0, 2000, 0.01, 4.3, 6.5))},
+                new ServicePoint[]{new ServicePoint(1L, "Appleton Tower", new Position(-3.186874, 55.944494))},
+                new DroneForServicePoint[]{new DroneForServicePoint(1L, List.of(new DroneForServicePoint.DroneAvailability(
+                        "1", List.of(new DroneForServicePoint.Availability("MONDAY", "00:00", "23:59")))))},
+                new RestrictedArea[]{new RestrictedArea("George Square", 1L, List.of(
+                        new Position(-3.19, 55.94), new Position(-3.18, 55.94), new Position(-3.18, 55.95),
+                        new Position(-3.19, 55.94)))});
+
+        IlpSnapshotExporter.export(exported, directory);
+        FileIlpRestClient client = new FileIlpRestClient(directory);
+
+        assertThat(client.snapshot().sameContentAs(exported)).isTrue();
+        assertThat(client.getDrones()).containsExactlyElementsOf(exported.drones());
+        assertThat(client.snapshot()).isSameAs(client.snapshot());
+    }
+
+    @Test
+    @DisplayName("A missing file fails at startup and names the file")
+    void missingFile() {
+        assertThatThrownBy(() -> new FileIlpRestClient(directory))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("drones.json");
+    }
+}
@@ -0,0 +1,161 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import org.junit.jupiter.api.DisplayName;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IlpRestClientImplTest {
+
+    private static final Drone DRONE = new Drone("1", "Drone 1", new Drone.Capability(true, false, 4.0, 2000, 0.01, 1.0, 1.0));
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("The four endpoints are fetched concurrently")
+    void fetchesEndpointsConcurrently() throws Exception {
+        stub("/drones", Drone[].class, new Drone[0], 300);
+        stub("/service-points", ServicePoint[].class, new ServicePoint[0], 300);
+        stub("/drones-for-service-points", DroneForServicePoint[].class, new DroneForServicePoint[0], 300);
+        stub("/restricted-areas", RestrictedArea[].class, new RestrictedArea[0], 300);
+        IlpRestClientImpl client = new IlpRestClientImpl(restTemplate, "http://ilp.test", Duration.ofSeconds(5), meterRegistry,
+                IlpCircuitBreakers.defaults());
+
+        long start = System.nanoTime();
+        ReferenceDataSnapshot snapshot = client.snapshot();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(snapshot.drones()).isEmpty();
+        assertThat(elapsedMillis).isLessThan(1000);
+    }
+
+    @Test
+    @DisplayName("One failing endpoint fails the whole fetch and is reported by name")
+    void failureIsReportedPerEndpoint() throws Exception {
+        stub("/drones", Drone[].class, new Drone[0], 0);
+        when(restTemplate.exchange(endsWith("/service-points"), eq(HttpMethod.GET), any(), eq(byte[].class))).thenAnswer(invocation -> {
+            Thread.sleep(200); // the slow endpoint is under way by then
+            throw new ResourceAccessException("connection refused");
+        });
+        stub("/drones-for-service-points", DroneForServicePoint[].class, new DroneForServicePoint[0], 2000);
+        stub("/restricted-areas", RestrictedArea[].class, new RestrictedArea[0], 0);
+        IlpCircuitBreakers breakers = IlpCircuitBreakers.defaults();
+        IlpRestClientImpl client = new IlpRestClientImpl(restTemplate, "http://ilp.test", Duration.ofSeconds(5), meterRegistry,
+                breakers);
+
+        long start = System.nanoTime();
+        IlpFetchException failure = catchThrowableOfType(IlpFetchException.class, client::snapshot);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(failure.failures()).containsKey("/service-points");
+        assertThat(failure.failures().get("/service-points")).contains("connection refused");
+        assertThat(failure.failures()).containsKey("/drones-for-service-points");
+        assertThat(failure.getCause()).isInstanceOf(ResourceAccessException.class);
+        // the slow endpoint is cancelled rather than waited for
+        assertThat(elapsedMillis).isLessThan(1500);
+
+        // and being cancelled doesn't count against its circuit
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (meterRegistry.find("ilp.upstream.request").tag("outcome", "cancelled").timer() == null
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("ilp.upstream.request").tag("endpoint", "/drones-for-service-points")
+                .tag("outcome", "cancelled").timer().count()).isEqualTo(1);
+        assertThat(breakers.statuses().get("/drones-for-service-points").calls()).isZero();
+        assertThat(breakers.statuses().get("/service-points").failureRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Endpoints still running at the deadline are reported as timed out")
+    void overallTimeout() throws Exception {
+        stub("/drones", Drone[].class, new Drone[0], 0);
+        stub("/service-points", ServicePoint[].class, new ServicePoint[0], 0);
+        stub("/drones-for-service-points", DroneForServicePoint[].class, new DroneForServicePoint[0], 0);
+        stub("/restricted-areas", RestrictedArea[].class, new RestrictedArea[0], 2000);
+        IlpRestClientImpl client = new IlpRestClientImpl(restTemplate, "http://ilp.test", Duration.ofMillis(200), meterRegistry,
+                IlpCircuitBreakers.defaults());
+
+        IlpFetchException failure = catchThrowableOfType(IlpFetchException.class, client::snapshot);
+
+        assertThat(failure.failures()).containsOnlyKeys("/restricted-areas");
+        assertThat(failure.failures().get("/restricted-areas")).contains("timed out");
+    }
+
+    @Test
+    @DisplayName("A 304 reuses the last parsed response and sends the ETag back")
+    void notModifiedSkipsParsing() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        when(restTemplate.exchange(endsWith("/drones"), eq(HttpMethod.GET), any(), eq(byte[].class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.writeValueAsBytes(new Drone[]{DRONE}), headers, HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+        IlpRestClientImpl client = new IlpRestClientImpl(restTemplate, "http://ilp.test", Duration.ofSeconds(5), meterRegistry,
+                IlpCircuitBreakers.defaults());
+
+        Drone[] first = client.getDrones();
+        Drone[] second = client.getDrones();
+
+        assertThat(first).containsExactly(DRONE);
+        assertThat(second).isSameAs(first);
+        ArgumentCaptor<HttpEntity<?>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2)).exchange(endsWith("/drones"), eq(HttpMethod.GET), requests.capture(), eq(byte[].class));
+        List<HttpEntity<?>> sent = requests.getAllValues();
+        assertThat(sent.get(0).getHeaders().getIfNoneMatch()).isEmpty();
+        assertThat(sent.get(1).getHeaders().getIfNoneMatch()).containsExactly("\"v1\"");
+    }
+
+    @Test
+    @DisplayName("Without validators an identical body is recognised by its hash and not parsed again")
+    void identicalBodyIsNotParsedAgain() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(new Drone[]{DRONE});
+        when(restTemplate.exchange(endsWith("/drones"), eq(HttpMethod.GET), any(), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok(body))
+                .thenReturn(ResponseEntity.ok(body.clone()));
+        IlpRestClientImpl client = new IlpRestClientImpl(restTemplate, "http://ilp.test", Duration.ofSeconds(5), meterRegistry,
+                IlpCircuitBreakers.defaults());
+
+        Drone[] first = client.getDrones();
+        assertThat(client.getDrones()).isSameAs(first);
+        assertThat(meterRegistry.get("ilp.upstream.request").tag("endpoint", "/drones").tag("outcome", "ok").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ilp.upstream.request").tag("endpoint", "/drones").tag("outcome", "unchanged").timer().count()).isEqualTo(1);
+    }
+
+    private <T> void stub(String endpoint, Class<T> type, T result, long delayMillis) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(result);
+        when(restTemplate.exchange(endsWith(endpoint), eq(HttpMethod.GET), any(), eq(byte[].class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                // what the JDK request factory does when the calling thread is interrupted
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Request was interrupted", new InterruptedIOException());
+            }
+            return ResponseEntity.ok(body);
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package ILP.coursework.ILP.coursework1.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamTransportTest {
+
+    private static final String BODY = "[{\"id\":\"1\",\"name\":\"Drone 1\"}]";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/drones", exchange -> respond(exchange, 0));
+        server.createContext("/restricted-areas", exchange -> respond(exchange, 600));
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Gzipped responses are unpacked transparently")
+    void gzipIsDecoded() {
+        RestTemplate restTemplate = restTemplate(Duration.ofSeconds(5), "", 4);
+
+        assertThat(restTemplate.getForObject(url("/drones"), String.class)).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("An endpoint with its own timeout fails on that timeout, others use the default")
+    void perEndpointTimeout() {
+        RestTemplate restTemplate = restTemplate(Duration.ofSeconds(5), "restricted-areas=PT0.2S", 4);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> restTemplate.getForObject(url("/restricted-areas"), String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(550);
+        assertThat(restTemplate.getForObject(url("/drones"), String.class)).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("Requests beyond the concurrency cap give up after the acquire timeout")
+    void concurrencyIsBounded() throws Exception {
+        RestTemplate restTemplate = restTemplate(Duration.ofSeconds(5), "", 1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = caller.submit(() -> restTemplate.getForObject(url("/restricted-areas"), String.class));
+            Thread.sleep(150);
+
+            assertThatThrownBy(() -> restTemplate.getForObject(url("/drones"), String.class))
+                    .isInstanceOf(ResourceAccessException.class)
+                    .hasMessageContaining("No slot");
+            assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo(BODY);
+            // the slot is free again once the slow response was read
+            assertThat(restTemplate.getForObject(url("/drones"), String.class)).isEqualTo(BODY);
+        } finally {
+            caller.shutdown();
+        }
+        assertThat(meterRegistry.get("ilp.http.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ilp.http.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Endpoint timeouts are parsed from name=duration pairs")
+    void parsesTimeouts() {
+        assertThat(EndpointTimeoutRequestFactory.parseTimeouts("drones=PT3S, /restricted-areas=PT10S"))
+                .containsEntry("/drones", Duration.ofSeconds(3))
+                .containsEntry("/restricted-areas", Duration.ofSeconds(10));
+        assertThat(EndpointTimeoutRequestFactory.parseTimeouts("")).isEmpty();
+        assertThatThrownBy(() -> EndpointTimeoutRequestFactory.parseTimeouts("drones"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RestTemplate restTemplate(Duration readTimeout, String endpointTimeouts, int maxConcurrent) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        RestTemplate restTemplate = new RestTemplate(new EndpointTimeoutRequestFactory(httpClient, readTimeout,
+                EndpointTimeoutRequestFactory.parseTimeouts(endpointTimeouts)));
+        restTemplate.setInterceptors(List.of(
+                new UpstreamLimitInterceptor(maxConcurrent, Duration.ofMillis(100), meterRegistry),
+                new GzipInterceptor()));
+        return restTemplate;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, long delayMillis) throws IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // the client timed out and went away
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ILP.coursework.ILP.coursework1.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RequestResourcesTest {
+
+    private static final int ALLOCATION = 16 * 1024 * 1024;
+
+    private final ExecutorService executor = new ResourceAccountingExecutor(Executors.newFixedThreadPool(2));
+    private volatile byte[] sink;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Work handed to the planning executor is charged to the submitting request")
+    void handedOffWorkIsCharged() throws Exception {
+        assumeTrue(RequestResources.isSupported());
+        RequestResources resources = RequestResources.start();
+        try {
+            executor.submit(() -> sink = new byte[ALLOCATION]).get(5, TimeUnit.SECONDS);
+
+            assertThat(resources.allocatedBytes()).isGreaterThanOrEqualTo(ALLOCATION);
+            assertThat(resources.cpuNanos()).isPositive();
+        } finally {
+            resources.detach();
+        }
+    }
+
+    @Test
+    @DisplayName("Tasks submitted outside a request are not wrapped")
+    void tasksOutsideRequestsAreUntouched() {
+        Runnable task = () -> {};
+        assertThat(RequestResources.charging(task)).isSameAs(task);
+    }
+}
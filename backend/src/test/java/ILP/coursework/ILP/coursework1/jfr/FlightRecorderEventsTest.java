@@ -0,0 +1,49 @@
+package ILP.coursework.ILP.coursework1.jfr;
+
+import ILP.coursework.ILP.coursework1.Service.AStarPathfinder;
+import ILP.coursework.ILP.coursework1.Service.GeometryServiceImpl;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderEventsTest {
+
+    private static final Position START = new Position(-3.186874, 55.944494);
+    private static final Position END = new Position(-3.1875, 55.9449);
+
+    @Test
+    @DisplayName("A* searches are recorded as ilp.AStarSearch events with their typed fields")
+    void searchIsRecorded(@TempDir Path dir) throws Exception {
+        AStarPathfinder pathfinder = new AStarPathfinder(new GeometryServiceImpl());
+        Path file = dir.resolve("search.jfr");
+
+        List<Position> path;
+        try (Recording recording = new Recording()) {
+            recording.enable(AStarSearchEvent.class);
+            recording.start();
+            path = pathfinder.findPath(START, END, List.of());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> searches = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("ilp.AStarSearch"))
+                .toList();
+        assertThat(searches).singleElement().satisfies(event -> {
+            assertThat(event.getString("outcome")).isEqualTo("found");
+            assertThat(event.getInt("pathLength")).isEqualTo(path.size());
+            assertThat(event.getInt("expandedNodes")).isPositive();
+            assertThat(event.getDouble("startLng")).isEqualTo(START.lng());
+            assertThat(event.getDuration()).isPositive();
+        });
+    }
+}
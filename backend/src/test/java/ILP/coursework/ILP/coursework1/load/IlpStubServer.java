@@ -0,0 +1,185 @@
+package ILP.coursework.ILP.coursework1.load;
+
+import ILP.coursework.ILP.coursework1.dto.Drone;
+import ILP.coursework.ILP.coursework1.dto.DroneForServicePoint;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import ILP.coursework.ILP.coursework1.dto.RestrictedArea;
+import ILP.coursework.ILP.coursework1.dto.ServicePoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the ILP service: serves a synthetic fleet, service points and no-fly zones on the four
+ * ILP endpoints, with a fixed extra latency and a share of requests failing with 500. Counts calls per endpoint.
+ * Everything lives around George Square; zones are squares on a grid that never cover a service point.
+ */
+final class IlpStubServer implements AutoCloseable {
+
+    static final double MIN_LNG = -3.205, MAX_LNG = -3.170;
+    static final double MIN_LAT = 55.935, MAX_LAT = 55.955;
+    private static final double ZONE_SIZE = 0.002;
+
+    /**
+     * What to serve and how badly.
+     */
+    record Config(int drones, int servicePoints, int zones, Duration latency, double errorRate, long seed) {
+        static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("load.drones", 50),
+                    Integer.getInteger("load.service-points", 3),
+                    Integer.getInteger("load.zones", 6),
+                    Duration.ofMillis(Long.getLong("load.latency-ms", 20)),
+                    Double.parseDouble(System.getProperty("load.error-rate", "0")),
+                    Long.getLong("load.seed", 42));
+        }
+    }
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, byte[]> bodies = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final List<double[]> zones = new ArrayList<>();
+
+    private IlpStubServer(Config config) throws IOException {
+        this.config = config;
+        Random random = new Random(config.seed());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ServicePoint[] servicePoints = new ServicePoint[config.servicePoints()];
+        for (int i = 0; i < servicePoints.length; i++) {
+            servicePoints[i] = new ServicePoint((long) i + 1, "Service point " + (i + 1), randomPosition(random));
+        }
+        buildZones(random, servicePoints);
+
+        Drone[] drones = new Drone[config.drones()];
+        List<List<DroneForServicePoint.DroneAvailability>> byServicePoint = new ArrayList<>();
+        for (int i = 0; i < servicePoints.length; i++) {
+            byServicePoint.add(new ArrayList<>());
+        }
+        for (int i = 0; i < drones.length; i++) {
+            drones[i] = new Drone(String.valueOf(i + 1), "Drone " + (i + 1), new Drone.Capability(
+                    random.nextInt(3) == 0, random.nextInt(4) == 0, 4.0 + random.nextInt(4) * 4,
+                    1500 + random.nextInt(4) * 500, 0.01 + random.nextInt(5) * 0.01, 1.0 + random.nextInt(3),
+                    1.0 + random.nextInt(3)));
+            byServicePoint.get(i % servicePoints.length).add(
+                    new DroneForServicePoint.DroneAvailability(drones[i].id(), availability(random)));
+        }
+        DroneForServicePoint[] availability = new DroneForServicePoint[servicePoints.length];
+        for (int i = 0; i < servicePoints.length; i++) {
+            availability[i] = new DroneForServicePoint(servicePoints[i].id(), byServicePoint.get(i));
+        }
+
+        RestrictedArea[] restrictedAreas = new RestrictedArea[zones.size()];
+        for (int i = 0; i < zones.size(); i++) {
+            double[] z = zones.get(i);
+            restrictedAreas[i] = new RestrictedArea("Zone " + (i + 1), (long) i + 1, List.of(
+                    new Position(z[0], z[1]), new Position(z[2], z[1]), new Position(z[2], z[3]),
+                    new Position(z[0], z[3]), new Position(z[0], z[1])));
+        }
+
+        bodies.put("/drones", objectMapper.writeValueAsBytes(drones));
+        bodies.put("/service-points", objectMapper.writeValueAsBytes(servicePoints));
+        bodies.put("/drones-for-service-points", objectMapper.writeValueAsBytes(availability));
+        bodies.put("/restricted-areas", objectMapper.writeValueAsBytes(restrictedAreas));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        bodies.keySet().forEach(path -> server.createContext(path, this::handle));
+    }
+
+    static IlpStubServer start(Config config) throws IOException {
+        IlpStubServer stub = new IlpStubServer(config);
+        stub.server.start();
+        return stub;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    Map<String, Long> callCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        calls.forEach((path, count) -> counts.put(path, count.get()));
+        return counts;
+    }
+
+    boolean insideZone(double lng, double lat) {
+        for (double[] z : zones) {
+            // with a margin, so deliveries aren't right on a zone edge
+            if (lng > z[0] - 0.0003 && lng < z[2] + 0.0003 && lat > z[1] - 0.0003 && lat < z[3] + 0.0003) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        calls.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+        try (exchange) {
+            Thread.sleep(config.latency().toMillis());
+            if (ThreadLocalRandom.current().nextDouble() < config.errorRate()) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            byte[] body = bodies.get(path);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void buildZones(Random random, ServicePoint[] servicePoints) {
+        int attempts = 0;
+        while (zones.size() < config.zones() && attempts++ < config.zones() * 100) {
+            Position corner = randomPosition(random);
+            double[] zone = {corner.lng(), corner.lat(), corner.lng() + ZONE_SIZE, corner.lat() + ZONE_SIZE};
+            boolean coversBase = Arrays.stream(servicePoints).anyMatch(sp ->
+                    sp.location().lng() > zone[0] - 0.001 && sp.location().lng() < zone[2] + 0.001
+                            && sp.location().lat() > zone[1] - 0.001 && sp.location().lat() < zone[3] + 0.001);
+            boolean overlaps = zones.stream().anyMatch(z ->
+                    zone[0] < z[2] + 0.001 && zone[2] > z[0] - 0.001 && zone[1] < z[3] + 0.001 && zone[3] > z[1] - 0.001);
+            if (!coversBase && !overlaps) {
+                zones.add(zone);
+            }
+        }
+    }
+
+    // most drones work all week, the rest only some days
+    private static List<DroneForServicePoint.Availability> availability(Random random) {
+        boolean allWeek = random.nextInt(4) != 0;
+        return Arrays.stream(DayOfWeek.values())
+                .filter(day -> allWeek || random.nextBoolean())
+                .map(day -> new DroneForServicePoint.Availability(day.name(), "00:00", "23:59"))
+                .toList();
+    }
+
+    private static Position randomPosition(Random random) {
+        return new Position(MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG),
+                MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,68 @@
+package ILP.coursework.ILP.coursework1.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Fires a fixed number of requests at the service from a fixed number of concurrent callers
+ * and reports latency percentiles and throughput.
+ */
+final class LoadDriver {
+
+    record Result(String name, int requests, int errors, long p50Micros, long p99Micros, long maxMicros, double perSecond) {
+        @Override
+        public String toString() {
+            return String.format("%-22s %6d req %5d err  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  %8.1f req/s",
+                    name, requests, errors, p50Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0, perSecond);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * @param request builds the i-th request; anything but a 2xx counts as an error
+     */
+    Result run(String name, int concurrency, int requests, IntFunction<HttpRequest> request) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            callers.execute(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request.apply(i), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 != 2) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = (System.nanoTime() - sent) / 1000;
+                }
+            });
+        }
+        callers.shutdown();
+        callers.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(name, requests, errors.get(), percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1], requests / (elapsed / 1e9));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
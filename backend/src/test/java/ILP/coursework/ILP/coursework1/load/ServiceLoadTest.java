@@ -0,0 +1,114 @@
+package ILP.coursework.ILP.coursework1.load;
+
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.MedDispatchRec;
+import ILP.coursework.ILP.coursework1.dto.JsonDtos.Position;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the whole app against the ILP stub and drives concurrent traffic at the planning endpoints.
+ * Excluded from the normal build, run with: mvn test -Dgroups=load -DexcludedGroups=
+ * Tune with -Dload.requests, -Dload.concurrency, -Dload.batch-size, and the stub's -Dload.drones, -Dload.zones,
+ * -Dload.latency-ms and -Dload.error-rate.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServiceLoadTest {
+
+    private static final IlpStubServer stub;
+
+    static {
+        try {
+            stub = IlpStubServer.start(IlpStubServer.Config.fromSystemProperties());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void pointAtStub(DynamicPropertyRegistry registry) {
+        registry.add("ilp.endpoint", stub::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Concurrent planning, availability and explanation traffic")
+    void mixedTraffic() throws Exception {
+        int requests = Integer.getInteger("load.requests", 40);
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        int batchSize = Integer.getInteger("load.batch-size", 3);
+        Random random = new Random(7);
+
+        List<byte[]> batches = new ArrayList<>();
+        List<byte[]> singles = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            List<MedDispatchRec> batch = new ArrayList<>();
+            for (int j = 0; j < batchSize; j++) {
+                batch.add(dispatch(random, (long) i * batchSize + j + 1));
+            }
+            batches.add(objectMapper.writeValueAsBytes(batch));
+            singles.add(objectMapper.writeValueAsBytes(batch.get(0)));
+        }
+
+        LoadDriver driver = new LoadDriver();
+        List<LoadDriver.Result> results = List.of(
+                driver.run("/queryAvailableDrones", concurrency, requests, i -> post("/queryAvailableDrones", batches.get(i))),
+                driver.run("/explainAvailability", concurrency, requests, i -> post("/explainAvailability", singles.get(i))),
+                driver.run("/calcDeliveryPath", concurrency, requests, i -> post("/calcDeliveryPath", batches.get(i))));
+
+        System.out.println("---- load results ----");
+        results.forEach(System.out::println);
+        System.out.println("upstream calls: " + stub.callCounts());
+
+        if (IlpStubServer.Config.fromSystemProperties().errorRate() == 0) {
+            assertThat(results).allSatisfy(result -> assertThat(result.errors()).isZero());
+        }
+    }
+
+    private HttpRequest post(String path, byte[] body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private MedDispatchRec dispatch(Random random, long id) {
+        double lng, lat;
+        do {
+            lng = IlpStubServer.MIN_LNG + random.nextDouble() * (IlpStubServer.MAX_LNG - IlpStubServer.MIN_LNG);
+            lat = IlpStubServer.MIN_LAT + random.nextDouble() * (IlpStubServer.MAX_LAT - IlpStubServer.MIN_LAT);
+        } while (stub.insideZone(lng, lat));
+        String time = String.format("%02d:%02d", 9 + random.nextInt(8), random.nextInt(60));
+        return new MedDispatchRec(id, "2025-12-12", time,
+                new MedDispatchRec.Requirements(0.5 + random.nextInt(3) * 0.5, random.nextInt(6) == 0 ? Boolean.TRUE : null, null, null),
+                new Position(lng, lat));
+    }
+}